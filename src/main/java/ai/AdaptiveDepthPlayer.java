@@ -0,0 +1,52 @@
+package ai;
+
+import ai.eval.Evaluator;
+import game.core.Board;
+import game.core.Move;
+import game.runtime.GameConfig;
+
+/**
+ * Expectimax whose depth is chosen per move by a {@link DepthPolicy}: shallow
+ * on open boards, where most moves are fine, and deeper on crowded ones,
+ * where a single mistake ends the game. Moves per depth show up in
+ * SearchStats#movesByDepth.
+ */
+public class AdaptiveDepthPlayer extends ExpectimaxPlayer {
+
+    /** Policy when none is given (see --depth-policy). */
+    public static final String DEFAULT_POLICY = "empty<=2:4,empty<=6:3,*:2";
+
+    private final DepthPolicy policy;
+    private final int fallbackDepth;
+
+    /** @param fallbackDepth depth for boards no rule of the policy matches */
+    public AdaptiveDepthPlayer(GameConfig config, Evaluator eval, DepthPolicy policy, int fallbackDepth,
+                               boolean useCache, int ttMegabytes) {
+        this(config, eval, policy, fallbackDepth, useCache, ttMegabytes, false);
+    }
+
+    /** @param reuseDeeper let a deep search on a crowded board answer the shallower ones after it */
+    public AdaptiveDepthPlayer(GameConfig config, Evaluator eval, DepthPolicy policy, int fallbackDepth,
+                               boolean useCache, int ttMegabytes, boolean reuseDeeper) {
+        super(config, eval, policy.maxDepth(fallbackDepth), useCache, ttMegabytes, reuseDeeper);
+        this.policy = policy;
+        this.fallbackDepth = fallbackDepth;
+    }
+
+    public DepthPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public Move chooseMove(Board board) {
+        long t0 = System.nanoTime();
+        if (tt != null) tt.newSearch();
+
+        int d = policy.depthFor(board, fallbackDepth);
+        Move bestMove = searchToDepth(board, d);
+        recordDepth(d);
+
+        searchNanos += (System.nanoTime() - t0);
+        return bestMove;
+    }
+}
@@ -0,0 +1,118 @@
+package ai;
+
+import game.core.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks a search depth per move from cheap board features.
+ *
+ * A policy is an ordered list of rules, {@code feature op value : depth},
+ * separated by commas; the first rule that matches the board wins. Features
+ * are {@code empty} (empty cells) and {@code distinct} (distinct tile values
+ * on the board), ops are {@code <=} and {@code >=}, and {@code *} matches any
+ * board. A board no rule matches is searched at the fallback depth.
+ *
+ * Example: {@code empty<=3:4,empty<=7:3,*:2} searches crowded boards deepest.
+ */
+public final class DepthPolicy {
+
+    private enum Feature { EMPTY, DISTINCT, ANY }
+
+    private record Rule(Feature feature, boolean atMost, int value, int depth) {
+        boolean matches(int empty, int distinct) {
+            if (feature == Feature.ANY) return true;
+            int x = feature == Feature.EMPTY ? empty : distinct;
+            return atMost ? x <= value : x >= value;
+        }
+
+        @Override
+        public String toString() {
+            if (feature == Feature.ANY) return "*:" + depth;
+            return feature.name().toLowerCase() + (atMost ? "<=" : ">=") + value + ":" + depth;
+        }
+    }
+
+    private final List<Rule> rules;
+
+    private DepthPolicy(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+    }
+
+    public static DepthPolicy parse(String spec) {
+        if (spec == null || spec.isBlank()) throw new IllegalArgumentException("empty depth policy");
+
+        List<Rule> rules = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String r = part.trim();
+            int colon = r.lastIndexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("depth policy rule needs ':<depth>': " + r);
+
+            int depth = parseInt(r.substring(colon + 1), r);
+            if (depth <= 0) throw new IllegalArgumentException("depth must be > 0 in rule: " + r);
+
+            String cond = r.substring(0, colon).trim();
+            if (cond.equals("*")) {
+                rules.add(new Rule(Feature.ANY, true, 0, depth));
+                continue;
+            }
+
+            boolean atMost = cond.contains("<=");
+            int op = atMost ? cond.indexOf("<=") : cond.indexOf(">=");
+            if (op < 0) throw new IllegalArgumentException("depth policy rule needs <= or >=: " + r);
+
+            Feature feature = switch (cond.substring(0, op).trim()) {
+                case "empty" -> Feature.EMPTY;
+                case "distinct" -> Feature.DISTINCT;
+                default -> throw new IllegalArgumentException("unknown feature (expected empty, distinct): " + r);
+            };
+            rules.add(new Rule(feature, atMost, parseInt(cond.substring(op + 2), r), depth));
+        }
+        return new DepthPolicy(rules);
+    }
+
+    private static int parseInt(String s, String rule) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number in depth policy rule: " + rule, e);
+        }
+    }
+
+    public int depthFor(Board board, int fallback) {
+        int empty = board.countEmptyCells();
+        int distinct = distinctTiles(board);
+        for (Rule rule : rules) {
+            if (rule.matches(empty, distinct)) return rule.depth();
+        }
+        return fallback;
+    }
+
+    /** Deepest depth any rule (or the fallback) can ask for. */
+    public int maxDepth(int fallback) {
+        int max = fallback;
+        for (Rule rule : rules) max = Math.max(max, rule.depth());
+        return max;
+    }
+
+    static int distinctTiles(Board board) {
+        int n = board.getDimension();
+        int seen = 0;
+        for (int i = 0; i < n * n; i++) {
+            int e = board.exponentAt(i);
+            if (e != 0) seen |= 1 << e;
+        }
+        return Integer.bitCount(seen);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Rule rule : rules) {
+            if (!sb.isEmpty()) sb.append(',');
+            sb.append(rule);
+        }
+        return sb.toString();
+    }
+}
@@ -1,26 +1,55 @@
 package ai;
 
 import ai.eval.Evaluator;
-import ai.util.BoardLRUCache;
+import ai.util.SearchTable;
+import ai.util.TranspositionTable;
+import game.core.BitBoard;
 import game.core.Board;
 import game.core.Move;
+import game.core.SearchBoard;
 import game.rules.Rules;
 import game.runtime.GameConfig;
 import game.spawn.Spawner;
 
-public class ExpectimaxPlayer implements Player {
+import java.util.Arrays;
+
+public class ExpectimaxPlayer implements SearchPlayer {
 
     protected final Evaluator eval;
     protected final Rules rules;
     protected final Spawner spawner;
 
-    private static final int CACHE_SIZE = 200_000;
+    /** Transposition table size when none is given (see --tt-mb). */
+    public static final int DEFAULT_TT_MB = 32;
 
-    protected final BoardLRUCache<CacheKey, Double> tt;
+    // one table for both search paths; the node type tells their keys apart
+    protected final SearchTable tt;
+    // false if the table was passed in, maybe shared with other players
+    private final boolean ownsTable;
     protected final int depth;
     protected final boolean useCache;
 
-    protected record CacheKey(Board board, int pliesLeft, boolean playerTurn) {}
+    // 4x4 games search on packed longs (see BitBoard); other sizes use a SearchBoard
+    protected final boolean packed;
+
+    // symmetric evaluators let rotations/reflections of a position share one cache entry
+    protected final boolean symmetricKeys;
+
+    // afterstate scratch, one row per plies-left value (unique along a search path)
+    private final long[][] packedAfterstates;
+
+    // mutable stack for the non-packed path, one level per ply plus the root (see SearchBoard)
+    private final SearchBoard searchBoard;
+
+    // scores of last-ply chance children, indexed by spawned exponent (1 = 2-tile, 2 = 4-tile);
+    // only the frontier uses them, so one set is enough
+    private final double[][] leafScores = new double[3][Board.MAX_MASK_DIMENSION * Board.MAX_MASK_DIMENSION];
+
+    // Table keys: SearchBoard#zobristHash() on the stack path, the packed board itself on the
+    // 4x4 path (their canonical forms when symmetricKeys is set, see cacheKey). Node types:
+    protected static final int TT_CHANCE = 0;
+    protected static final int TT_PLAYER = 1;
+    protected static final int TT_STACK = 2; // or'ed into either for stack-path keys
 
     // instrumentation
     protected long nodes;
@@ -28,41 +57,92 @@ public class ExpectimaxPlayer implements Player {
     protected long chanceNodes;
     protected long chanceOutcomes;
     protected long searchNanos;
-    protected long cacheHits;
-    protected long cacheMisses;
-
-    public record SearchStats(
-            long nodes,
-            long evalCalls,
-            long chanceNodes,
-            long chanceOutcomes,
-            long searchNanos,
-            long cacheHits,
-            long cacheMisses
-    ) {}
+    // subtrees not searched to full depth (pruned or cut off by a subclass)
+    protected long pruned;
 
+    // moves decided per search depth reached (index = depth); fixed-depth players only use one slot
+    private final long[] movesByDepth;
+    private int lastDepth;
+
+    @Override
     public void resetStats() {
         nodes = 0;
         evalCalls = 0;
         chanceNodes = 0;
         chanceOutcomes = 0;
         searchNanos = 0;
-        cacheHits = 0;
-        cacheMisses = 0;
+        pruned = 0;
+        Arrays.fill(movesByDepth, 0L);
+        if (ownsTable) tt.resetStats();
     }
 
+    /** Cache counters are the table's, so with a shared table they cover every player using it. */
+    @Override
     public SearchStats getStats() {
-        return new SearchStats(nodes, evalCalls, chanceNodes, chanceOutcomes,
-                searchNanos, cacheHits, cacheMisses);
+        if (tt == null) {
+            return new SearchStats(nodes, evalCalls, chanceNodes, chanceOutcomes, searchNanos, 0, 0, 0, 0, 0,
+                    pruned, movesByDepth.clone());
+        }
+        return new SearchStats(nodes, evalCalls, chanceNodes, chanceOutcomes, searchNanos,
+                tt.hits(), tt.carriedHits(), tt.misses(), tt.collisions(), tt.replacements(),
+                pruned, movesByDepth.clone());
+    }
+
+    /** Depth the last chooseMove searched to (0 before the first move). */
+    public int lastDepth() {
+        return lastDepth;
+    }
+
+    /** Counts a move decided by a search that completed the given depth. */
+    protected final void recordDepth(int depthReached) {
+        lastDepth = depthReached;
+        movesByDepth[depthReached]++;
     }
 
     public ExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache) {
+        this(config, eval, depth, useCache, DEFAULT_TT_MB);
+    }
+
+    /** @param ttMegabytes transposition table size, ignored when useCache is false */
+    public ExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ttMegabytes) {
+        this(config, eval, depth, useCache, ttMegabytes, false);
+    }
+
+    /**
+     * @param reuseDeeper let cached results searched deeper answer shallower
+     *                    lookups (see TranspositionTable); moves may then differ
+     *                    from an uncached search
+     */
+    public ExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ttMegabytes,
+                            boolean reuseDeeper) {
+        this(config, eval, depth, useCache ? TranspositionTable.ofMegabytes(ttMegabytes, reuseDeeper) : null, true);
+    }
+
+    /**
+     * Searches with the given table, which other players may share (see
+     * ConcurrentTranspositionTable); null disables the cache. Players sharing a
+     * table must use the same rules, spawner and evaluator.
+     */
+    public ExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, SearchTable table) {
+        this(config, eval, depth, table, false);
+    }
+
+    private ExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, SearchTable table, boolean ownsTable) {
+        if (depth * 2 > SearchTable.MAX_PLIES) {
+            throw new IllegalArgumentException("depth must be at most " + SearchTable.MAX_PLIES / 2 + ", got " + depth);
+        }
         this.eval = eval;
         this.rules = config.rules();
         this.spawner = config.spawner();
         this.depth = depth;
-        this.useCache = useCache;
-        this.tt = useCache ? new BoardLRUCache<>(CACHE_SIZE) : null;
+        this.useCache = table != null;
+        this.packed = config.gridSize() == BitBoard.SIZE;
+        this.symmetricKeys = eval.isSymmetric();
+        this.tt = table;
+        this.ownsTable = ownsTable && table != null;
+        this.packedAfterstates = new long[depth * 2 + 1][4];
+        this.searchBoard = new SearchBoard(config.gridSize(), depth * 2 + 1);
+        this.movesByDepth = new long[depth + 1];
     }
 
     public ExpectimaxPlayer(GameConfig config, Evaluator eval, int depth) {
@@ -72,32 +152,74 @@ public class ExpectimaxPlayer implements Player {
     @Override
     public Move chooseMove(Board board) {
         long t0 = System.nanoTime();
+        if (tt != null) tt.newSearch();
+
+        Move bestMove = searchToDepth(board, depth);
+        recordDepth(depth);
 
-        var moves = rules.getLegalMoves(board);
-        if (moves.isEmpty()) {
-            searchNanos += (System.nanoTime() - t0);
-            return Move.LEFT;
+        searchNanos += (System.nanoTime() - t0);
+        return bestMove;
+    }
+
+    /** Best move from a full search to the given depth, at most the depth this player was built for. */
+    protected final Move searchToDepth(Board board, int depth) {
+        if (depth < 1 || depth > this.depth) {
+            throw new IllegalArgumentException("depth must be 1.." + this.depth + ", got " + depth);
         }
+        return (packed && BitBoard.supports(board, depth))
+                ? searchRoot(BitBoard.pack(board), depth * 2)
+                : searchRoot(board, depth * 2);
+    }
+
+    protected long cacheKey(SearchBoard board) {
+        return symmetricKeys ? board.canonicalHash() : board.zobristHash();
+    }
+
+    protected long cacheKey(long board) {
+        return symmetricKeys ? BitBoard.canonical(board) : board;
+    }
+
+    private Move searchRoot(Board board, int plies) {
+        SearchBoard stack = searchBoard;
+        stack.reset(board);
 
         double bestScore = Double.NEGATIVE_INFINITY;
         Move bestMove = Move.LEFT;
 
-        int plies = depth * 2;
+        for (Move move : Move.values()) {
+            if (!rules.pushMove(stack, move)) continue;
+            double score = value(stack, plies - 1, false);
+            stack.pop();
+            if (score >= bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+        }
+
+        return bestMove;
+    }
 
-        for (Move m : moves) {
-            Board afterMove = rules.makeMove(board, m).board();
-            double score = value(afterMove, plies - 1, false);
+    private Move searchRoot(long board, int plies) {
+        long[] after = packedAfterstates[plies];
+        int moves = rules.afterstates(board, after);
+
+        double bestScore = Double.NEGATIVE_INFINITY;
+        Move bestMove = Move.LEFT;
+
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            double score = value(after[i], plies - 1, false);
             if (score >= bestScore) {
                 bestScore = score;
-                bestMove = m;
+                bestMove = Move.byOrdinal(i);
             }
         }
 
-        searchNanos += (System.nanoTime() - t0);
         return bestMove;
     }
 
-    protected double value(Board board, int pliesLeft, boolean playerTurn) {
+    // board is the top of the search stack; every push below is popped before returning
+    protected double value(SearchBoard board, int pliesLeft, boolean playerTurn) {
         nodes++;
 
         if (pliesLeft == 0) {
@@ -108,88 +230,232 @@ public class ExpectimaxPlayer implements Player {
         // Cache policy is allowed to depend on the node type/state,
         // so we check caching after we know what node we are in.
         if (playerTurn) {
-            CacheKey key = null;
-
-            if (useCache && shouldCache(board, pliesLeft, true)) {
-                key = new CacheKey(board, pliesLeft, true);
-                Double cached = tt.get(key);
-                if (cached != null) {
-                    cacheHits++;
-                    return cached;
-                }
-                cacheMisses++;
-            }
+            boolean cacheThis = useCache && shouldCache(board, pliesLeft, true);
+            long key = 0L;
 
-            var moves = rules.getLegalMoves(board);
-            final double result;
+            if (cacheThis) {
+                key = cacheKey(board);
+                double cached = tt.get(key, pliesLeft, TT_STACK | TT_PLAYER);
+                if (!Double.isNaN(cached)) return cached;
+            }
 
-            if (moves.isEmpty()) {
+            double best = Double.NEGATIVE_INFINITY;
+            boolean anyMove = false;
+            for (Move move : Move.values()) {
+                if (!rules.pushMove(board, move)) continue;
+                anyMove = true;
+                best = Math.max(best, value(board, pliesLeft - 1, false));
+                board.pop();
+            }
+            if (!anyMove) {
                 evalCalls++;
-                result = Double.NEGATIVE_INFINITY;
-            } else {
-                double best = Double.NEGATIVE_INFINITY;
-                for (Move m : moves) {
-                    Board after = rules.makeMove(board, m).board();
-                    best = Math.max(best, value(after, pliesLeft - 1, false));
-                }
-                result = best;
             }
+            double result = best;
 
-            if (useCache && key != null) tt.put(key, result);
+            if (cacheThis) tt.put(key, pliesLeft, TT_STACK | TT_PLAYER, result);
             return result;
         }
 
         // Chance node
         chanceNodes++;
 
-        int[] empties = board.getEmptyCells();
-        if (empties.length == 0) {
+        long empties = board.emptyMask();
+        if (empties == 0) {
             return value(board, pliesLeft - 1, true);
         }
 
-        CacheKey key = null;
         boolean cacheThisChance = useCache && shouldCacheChance(board, pliesLeft, empties);
+        long key = 0L;
 
         if (cacheThisChance) {
-            key = new CacheKey(board, pliesLeft, false);
-            Double cached = tt.get(key);
-            if (cached != null) {
-                cacheHits++;
-                return cached;
-            }
-            cacheMisses++;
+            key = cacheKey(board);
+            double cached = tt.get(key, pliesLeft, TT_STACK | TT_CHANCE);
+            if (!Double.isNaN(cached)) return cached;
         }
 
         double result = chanceValue(board, pliesLeft, empties);
 
-        if (cacheThisChance) tt.put(key, result);
+        if (cacheThisChance) tt.put(key, pliesLeft, TT_STACK | TT_CHANCE, result);
         return result;
     }
 
+    /** Value of a position outside any search, on this player's own stack (see ParallelExpectimaxPlayer). */
+    final double standaloneValue(Board board, int pliesLeft, boolean playerTurn) {
+        searchBoard.reset(board);
+        return value(searchBoard, pliesLeft, playerTurn);
+    }
+
     /** Hook: subclasses can decide whether a node is cached at all. */
-    protected boolean shouldCache(Board board, int pliesLeft, boolean playerTurn) {
+    protected boolean shouldCache(SearchBoard board, int pliesLeft, boolean playerTurn) {
         return true;
     }
 
-    /** Hook: subclasses can decide whether a chance node is cached, given empties. */
-    protected boolean shouldCacheChance(Board board, int pliesLeft, int[] empties) {
+    /** Hook: subclasses can decide whether a chance node is cached, given its empty-cell mask. */
+    protected boolean shouldCacheChance(SearchBoard board, int pliesLeft, long empties) {
         return true;
     }
 
-    /** Hook: compute expected value at a chance node. Default = full (2 and 4) expansion. */
-    protected double chanceValue(Board board, int pliesLeft, int[] empties) {
+    /**
+     * Hook: compute expected value at a chance node. Default = full (2 and 4) expansion.
+     * Children are pushed onto the stack and popped again, leaving it as it was.
+     */
+    protected double chanceValue(SearchBoard board, int pliesLeft, long empties) {
+        int count = Long.bitCount(empties);
+
         // instrumentation for full expansion
-        chanceOutcomes += (long) empties.length * 2;
+        chanceOutcomes += (long) count * 2;
+
+        double pCell = 1.0 / count;
+        double p2 = spawner.getP2();
+        double p4 = 1.0 - p2;
+
+        double expected = 0.0;
+        if (pliesLeft == 1) {
+            double[] v2 = leafSpawnValues(board, empties, 1);
+            double[] v4 = leafSpawnValues(board, empties, 2);
+            for (int k = 0; k < count; k++) {
+                expected += pCell * p2 * v2[k];
+                expected += pCell * p4 * v4[k];
+            }
+            return expected;
+        }
+
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            expected += pCell * p2 * spawnValue(board, cell, 1, pliesLeft - 1);
+            expected += pCell * p4 * spawnValue(board, cell, 2, pliesLeft - 1);
+        }
+        return expected;
+    }
+
+    /**
+     * Leaf values of every child that spawns the given exponent on an empty cell,
+     * in ascending cell order, for a chance node one ply above the leaves.
+     * Scored in one batch by the evaluator (see Evaluator#evaluateSpawns) and
+     * counted as nodes/evals like value() would. The array is reused.
+     */
+    protected final double[] leafSpawnValues(SearchBoard board, long empties, int exponent) {
+        int count = Long.bitCount(empties);
+        nodes += count;
+        evalCalls += count;
+        eval.evaluateSpawns(board, empties, exponent, leafScores[exponent]);
+        return leafScores[exponent];
+    }
+
+    /** Value of the board with the given tile spawned, searched with pliesLeft remaining. */
+    protected final double spawnValue(SearchBoard board, int cell, int exponent, int pliesLeft) {
+        board.pushTile(cell, exponent);
+        double v = value(board, pliesLeft, true);
+        board.pop();
+        return v;
+    }
+
+    /* =========================
+       Packed 4x4 search (same tree and instrumentation as the Board path)
+       ========================= */
+
+    protected double value(long board, int pliesLeft, boolean playerTurn) {
+        nodes++;
+
+        if (pliesLeft == 0) {
+            evalCalls++;
+            return eval.evaluate(board);
+        }
+
+        if (playerTurn) {
+            boolean cacheThis = useCache && shouldCache(board, pliesLeft, true);
+            long key = 0L;
+
+            if (cacheThis) {
+                key = cacheKey(board);
+                double cached = tt.get(key, pliesLeft, TT_PLAYER);
+                if (!Double.isNaN(cached)) return cached;
+            }
+
+            long[] after = packedAfterstates[pliesLeft];
+            int moves = rules.afterstates(board, after);
+
+            double best = Double.NEGATIVE_INFINITY;
+            if (moves == 0) {
+                evalCalls++;
+            }
+            for (int bits = moves; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                best = Math.max(best, value(after[i], pliesLeft - 1, false));
+            }
+            double result = best;
+
+            if (cacheThis) tt.put(key, pliesLeft, TT_PLAYER, result);
+            return result;
+        }
+
+        // Chance node
+        chanceNodes++;
 
-        double pCell = 1.0 / empties.length;
+        long empties = BitBoard.emptyMask(board);
+        if (empties == 0) {
+            return value(board, pliesLeft - 1, true);
+        }
+
+        boolean cacheThisChance = useCache && shouldCacheChance(board, pliesLeft, empties);
+        long key = 0L;
+
+        if (cacheThisChance) {
+            key = cacheKey(board);
+            double cached = tt.get(key, pliesLeft, TT_CHANCE);
+            if (!Double.isNaN(cached)) return cached;
+        }
+
+        double result = chanceValue(board, pliesLeft, empties);
+
+        if (cacheThisChance) tt.put(key, pliesLeft, TT_CHANCE, result);
+        return result;
+    }
+
+    /** Hook: packed counterpart of {@link #shouldCache(SearchBoard, int, boolean)}. */
+    protected boolean shouldCache(long board, int pliesLeft, boolean playerTurn) {
+        return true;
+    }
+
+    /** Hook: packed counterpart of {@link #shouldCacheChance(SearchBoard, int, long)}. */
+    protected boolean shouldCacheChance(long board, int pliesLeft, long empties) {
+        return true;
+    }
+
+    /** Hook: packed counterpart of {@link #chanceValue(SearchBoard, int, long)}. */
+    protected double chanceValue(long board, int pliesLeft, long empties) {
+        int count = Long.bitCount(empties);
+        chanceOutcomes += (long) count * 2;
+
+        double pCell = 1.0 / count;
         double p2 = spawner.getP2();
         double p4 = 1.0 - p2;
 
         double expected = 0.0;
-        for (int cell : empties) {
-            expected += pCell * p2 * value(board.placeTile(cell, 2), pliesLeft - 1, true);
-            expected += pCell * p4 * value(board.placeTile(cell, 4), pliesLeft - 1, true);
+        if (pliesLeft == 1) {
+            double[] v2 = leafSpawnValues(board, empties, 1);
+            double[] v4 = leafSpawnValues(board, empties, 2);
+            for (int k = 0; k < count; k++) {
+                expected += pCell * p2 * v2[k];
+                expected += pCell * p4 * v4[k];
+            }
+            return expected;
+        }
+
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            expected += pCell * p2 * value(BitBoard.place(board, cell, 1), pliesLeft - 1, true);
+            expected += pCell * p4 * value(BitBoard.place(board, cell, 2), pliesLeft - 1, true);
         }
         return expected;
     }
-}
\ No newline at end of file
+
+    /** Packed counterpart of {@link #leafSpawnValues(SearchBoard, long, int)}. */
+    protected final double[] leafSpawnValues(long board, long empties, int exponent) {
+        int count = Long.bitCount(empties);
+        nodes += count;
+        evalCalls += count;
+        eval.evaluateSpawns(board, empties, exponent, leafScores[exponent]);
+        return leafScores[exponent];
+    }
+}
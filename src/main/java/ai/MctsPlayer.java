@@ -0,0 +1,348 @@
+package ai;
+
+import ai.eval.BoundedEvaluator;
+import game.core.BitBoard;
+import game.core.Board;
+import game.core.Move;
+import game.rules.Rules;
+import game.runtime.GameConfig;
+import game.spawn.Spawner;
+import game.util.Rng;
+
+/**
+ * Monte Carlo tree search with chance nodes, on packed 4x4 boards.
+ *
+ * The tree alternates decision nodes (a position, the player to move) and
+ * chance nodes (an afterstate, a tile to spawn). Each iteration walks down
+ * from the root: UCT picks the move at decision nodes, and chance nodes draw
+ * a spawn from the Spawner, adding the spawned position as a child the first
+ * time it is drawn. The walk stops at the first decision node not expanded
+ * yet, which gets its children and is scored by the evaluator; lost positions
+ * score a whole score range below the evaluator's lower bound. The score is
+ * added to every node on the path. The move played is the most visited one.
+ *
+ * UCT compares the mean scores of sibling moves scaled to [0, 1] by their
+ * spread, plus exploration * sqrt(ln N / n), so the constant does not depend
+ * on the evaluator's scale.
+ *
+ * Nodes live in parallel arrays of fixed capacity: an iteration allocates
+ * nothing, and the search stops early for the move once the pool is full.
+ * After a move, the subtree of the position the game actually reached is kept:
+ * it is compacted to the front of the pool and becomes the next root.
+ *
+ * The budget per move is a number of iterations, or a time budget when
+ * moveMillis is positive. In SearchStats, nodes are iterations and
+ * evalCalls are evaluated leaves.
+ */
+public class MctsPlayer implements SearchPlayer {
+
+    /** Iterations per move when none is given (see --mcts-iters). */
+    public static final int DEFAULT_ITERATIONS = 2000;
+    /** Node pool size when none is given (see --mcts-nodes). */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    /** UCT exploration constant, against mean scores scaled to [0, 1]. */
+    public static final double DEFAULT_EXPLORATION = 0.5;
+
+    private static final long DEFAULT_SEED = 0x2048L;
+    private static final int NONE = -1;
+    // iterations between clock reads with a time budget
+    private static final int POLL_ITERATIONS = 64;
+    // walks end here even if the tree goes deeper (decision + chance node per step)
+    private static final int MAX_PATH = 256;
+
+    private static final byte EXPANDED = 1;
+
+    private final BoundedEvaluator eval;
+    private final Rules rules;
+    private final Spawner spawner;
+    private final int iterations;
+    private final long moveNanos;
+    private final double exploration;
+    private final double lossValue;
+    private final Rng rng;
+
+    // node pool; a node's children are a sibling list, always allocated after the node
+    private final int capacity;
+    private final long[] board;
+    private final int[] visits;
+    private final double[] valueSum;
+    private final int[] parent;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final byte[] move;      // chance nodes: the move that led to the afterstate
+    private final byte[] flags;     // decision nodes: EXPANDED
+    private int size;
+
+    private final int[] remap;
+    private final int[] path = new int[MAX_PATH];
+    private final long[] afterstates = new long[4];
+
+    private int root = NONE;
+    // chance node of the move played last, to find the next root under it
+    private int played = NONE;
+    private int lastReused;
+
+    // instrumentation
+    private long iterationsRun;
+    private long evalCalls;
+    private long searchNanos;
+    private long decisions;
+
+    /**
+     * @param iterations per-move budget, used when moveMillis is 0
+     * @param moveMillis per-move time budget, 0 for an iteration budget
+     * @param capacity   nodes in the pool
+     */
+    public MctsPlayer(GameConfig config, BoundedEvaluator eval, int iterations, long moveMillis, int capacity,
+                      double exploration, long seed) {
+        if (config.gridSize() != BitBoard.SIZE) {
+            throw new IllegalArgumentException("MctsPlayer only supports 4x4 boards, got " + config.gridSize());
+        }
+        if (iterations <= 0) throw new IllegalArgumentException("iterations must be > 0, got " + iterations);
+        if (moveMillis < 0) throw new IllegalArgumentException("moveMillis must be >= 0, got " + moveMillis);
+        if (capacity < 16) throw new IllegalArgumentException("capacity must be at least 16, got " + capacity);
+        this.eval = eval;
+        this.rules = config.rules();
+        this.spawner = config.spawner();
+        this.iterations = iterations;
+        this.moveNanos = moveMillis * 1_000_000L;
+        this.exploration = exploration;
+        // a full score range below the worst evaluated position: mean scores must feel a loss
+        this.lossValue = eval.lowerBound() - (eval.upperBound() - eval.lowerBound());
+        this.rng = new Rng(seed);
+
+        this.capacity = capacity;
+        this.board = new long[capacity];
+        this.visits = new int[capacity];
+        this.valueSum = new double[capacity];
+        this.parent = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.move = new byte[capacity];
+        this.flags = new byte[capacity];
+        this.remap = new int[capacity];
+    }
+
+    public MctsPlayer(GameConfig config, BoundedEvaluator eval, int iterations, long moveMillis, int capacity) {
+        this(config, eval, iterations, moveMillis, capacity, DEFAULT_EXPLORATION, DEFAULT_SEED);
+    }
+
+    /** Nodes kept from the previous move's tree when the last move started (0 if it started afresh). */
+    public int lastReused() {
+        return lastReused;
+    }
+
+    /** Nodes in the pool after the last move. */
+    public int treeSize() {
+        return size;
+    }
+
+    @Override
+    public Move chooseMove(Board b) {
+        if (!BitBoard.supports(b)) {
+            throw new IllegalArgumentException("MctsPlayer needs tiles below 2^" + BitBoard.MAX_EXPONENT);
+        }
+        long t0 = System.nanoTime();
+        long deadline = t0 + moveNanos;
+
+        setRoot(BitBoard.pack(b));
+
+        for (int i = 0; moveNanos > 0 || i < iterations; i++) {
+            if (moveNanos > 0 && i % POLL_ITERATIONS == 0 && i > 0 && System.nanoTime() - deadline > 0) break;
+            // room for one expansion (4 moves) and one spawned position
+            if (size + 5 > capacity) break;
+            iterate();
+        }
+
+        int best = NONE;
+        for (int c = firstChild[root]; c != NONE; c = nextSibling[c]) {
+            if (best == NONE || visits[c] > visits[best]
+                    || (visits[c] == visits[best] && mean(c) > mean(best))) {
+                best = c;
+            }
+        }
+        played = best;
+
+        decisions++;
+        searchNanos += (System.nanoTime() - t0);
+        return best == NONE ? Move.LEFT : Move.byOrdinal(move[best]);
+    }
+
+    // Continues the previous tree if the position is a spawn it has seen, else starts afresh.
+    private void setRoot(long position) {
+        int next = NONE;
+        if (played != NONE) {
+            for (int c = firstChild[played]; c != NONE; c = nextSibling[c]) {
+                if (board[c] == position) {
+                    next = c;
+                    break;
+                }
+            }
+        }
+
+        if (next == NONE) {
+            size = 0;
+            root = newNode(position, NONE, 0);
+            lastReused = 0;
+        } else {
+            compact(next);
+            lastReused = size;
+        }
+        played = NONE;
+
+        // a kept tree that fills the pool leaves no room to search
+        if (size + 5 > capacity) {
+            size = 0;
+            root = newNode(position, NONE, 0);
+        }
+    }
+
+    // Moves the subtree of newRoot to the front of the pool, in the same order.
+    // Children come after their parent, so one forward pass finds the subtree
+    // and every node moves down (or stays), never over a node still to be read.
+    private void compact(int newRoot) {
+        int kept = 0;
+        for (int i = newRoot; i < size; i++) {
+            boolean inSubtree = i == newRoot || (parent[i] >= newRoot && remap[parent[i]] != NONE);
+            remap[i] = inSubtree ? kept++ : NONE;
+        }
+
+        for (int i = newRoot; i < size; i++) {
+            int to = remap[i];
+            if (to == NONE) continue;
+            board[to] = board[i];
+            visits[to] = visits[i];
+            valueSum[to] = valueSum[i];
+            parent[to] = i == newRoot ? NONE : remap[parent[i]];
+            firstChild[to] = firstChild[i] == NONE ? NONE : remap[firstChild[i]];
+            nextSibling[to] = i == newRoot || nextSibling[i] == NONE ? NONE : remap[nextSibling[i]];
+            move[to] = move[i];
+            flags[to] = flags[i];
+        }
+        size = kept;
+        root = 0;
+    }
+
+    private void iterate() {
+        int depth = 0;
+        int node = root;
+        path[depth++] = node;
+
+        double value;
+        while (true) {
+            if ((flags[node] & EXPANDED) == 0) {
+                value = expand(node);
+                break;
+            }
+            if (firstChild[node] == NONE) {
+                value = lossValue;
+                break;
+            }
+            if (depth + 2 > MAX_PATH) {
+                evalCalls++;
+                value = eval.evaluate(board[node]);
+                break;
+            }
+
+            int chance = select(node);
+            path[depth++] = chance;
+            node = spawnChild(chance);
+            path[depth++] = node;
+        }
+
+        for (int i = 0; i < depth; i++) {
+            visits[path[i]]++;
+            valueSum[path[i]] += value;
+        }
+        iterationsRun++;
+    }
+
+    // Adds a chance node per legal move and scores the position.
+    private double expand(int node) {
+        flags[node] |= EXPANDED;
+        int moves = rules.afterstates(board[node], afterstates);
+        if (moves == 0) return lossValue;
+
+        int last = NONE;
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            int c = newNode(afterstates[i], node, i);
+            if (last == NONE) firstChild[node] = c;
+            else nextSibling[last] = c;
+            last = c;
+        }
+
+        evalCalls++;
+        return eval.evaluate(board[node]);
+    }
+
+    // UCT over the moves; an unvisited move goes first
+    private int select(int node) {
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+            if (visits[c] == 0) return c;
+            double q = mean(c);
+            lo = Math.min(lo, q);
+            hi = Math.max(hi, q);
+        }
+
+        double spread = hi > lo ? hi - lo : 1.0;
+        double logN = Math.log(visits[node]);
+        int best = NONE;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+            double score = (mean(c) - lo) / spread + exploration * Math.sqrt(logN / visits[c]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // Draws a spawn; the drawn position's node, added on its first draw.
+    private int spawnChild(int chance) {
+        long spawned = spawner.sample(board[chance], rng);
+        int last = NONE;
+        for (int c = firstChild[chance]; c != NONE; c = nextSibling[c]) {
+            if (board[c] == spawned) return c;
+            last = c;
+        }
+
+        int c = newNode(spawned, chance, 0);
+        if (last == NONE) firstChild[chance] = c;
+        else nextSibling[last] = c;
+        return c;
+    }
+
+    private int newNode(long position, int parentNode, int moveOrdinal) {
+        int n = size++;
+        board[n] = position;
+        visits[n] = 0;
+        valueSum[n] = 0.0;
+        parent[n] = parentNode;
+        firstChild[n] = NONE;
+        nextSibling[n] = NONE;
+        move[n] = (byte) moveOrdinal;
+        flags[n] = 0;
+        return n;
+    }
+
+    private double mean(int node) {
+        return visits[node] == 0 ? 0.0 : valueSum[node] / visits[node];
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return new SearchStats(iterationsRun, evalCalls, 0, 0, searchNanos, 0, 0, 0, 0, 0, 0, new long[]{decisions});
+    }
+
+    @Override
+    public void resetStats() {
+        iterationsRun = 0;
+        evalCalls = 0;
+        searchNanos = 0;
+        decisions = 0;
+    }
+}
@@ -0,0 +1,384 @@
+package ai;
+
+import ai.eval.Evaluator;
+import ai.util.ConcurrentTranspositionTable;
+import game.core.BitBoard;
+import game.core.Board;
+import game.core.Move;
+import game.runtime.GameConfig;
+
+import java.io.Serial;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Expectimax that splits the top of the tree into fork-join tasks.
+ *
+ * The root's chance layer is always split: every spawn under every legal
+ * move is its own task. Deeper chance nodes are split too while they have at
+ * least {@code splitPlies} plies left (their player nodes fork one task per
+ * move); below that cutoff a subtree is searched sequentially by the current
+ * thread's own ExpectimaxPlayer, with its own afterstate scratch and search
+ * stack. Idle threads steal whatever tasks are pending, which evens out the
+ * very unequal subtree sizes.
+ *
+ * Child values are folded in the same fixed order as the sequential chance
+ * node, whichever thread finished first, so values are bit-for-bit those of
+ * {@link ExpectimaxPlayer} and the chosen move is the same at the same depth.
+ * With the cache on, all threads share one ConcurrentTranspositionTable.
+ *
+ * The player either owns a pool of {@code threads} workers, shut down by
+ * {@link #close()}, or runs on a pool passed in, which several players may
+ * share and which the caller shuts down. The search runs on pool threads, so
+ * CPU time measured on the calling thread misses it; compare wall time.
+ */
+public class ParallelExpectimaxPlayer extends ExpectimaxPlayer implements AutoCloseable {
+
+    /** Split cutoff when none is given (see --split-plies). */
+    public static final int DEFAULT_SPLIT_PLIES = 5;
+
+    private final GameConfig config;
+    private final SearchPool searchPool;
+    private final ForkJoinPool pool;
+    private final int splitPlies;
+
+    // one sequential searcher per pool thread; counts the split nodes that thread expands too
+    private final ThreadLocal<ExpectimaxPlayer> workers;
+    private final Queue<ExpectimaxPlayer> allWorkers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param ttMegabytes size of the shared table, ignored when useCache is false
+     * @param splitPlies  chance nodes with at least this many plies left are split into tasks
+     */
+    public ParallelExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ttMegabytes,
+                                    int threads, int splitPlies) {
+        this(config, eval, depth, useCache, ttMegabytes, SearchPool.owned(threads), splitPlies);
+    }
+
+    /** Searches on the given pool, which this player does not shut down. */
+    public ParallelExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ttMegabytes,
+                                    ForkJoinPool pool, int splitPlies) {
+        this(config, eval, depth, useCache, ttMegabytes, SearchPool.shared(pool), splitPlies);
+    }
+
+    private ParallelExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ttMegabytes,
+                                     SearchPool searchPool, int splitPlies) {
+        super(config, eval, depth, useCache ? ConcurrentTranspositionTable.ofMegabytes(ttMegabytes) : null);
+        if (splitPlies <= 0) throw new IllegalArgumentException("splitPlies must be > 0, got " + splitPlies);
+        this.config = config;
+        this.searchPool = searchPool;
+        this.pool = searchPool.pool();
+        this.splitPlies = splitPlies;
+        this.workers = ThreadLocal.withInitial(() -> {
+            ExpectimaxPlayer worker = new ExpectimaxPlayer(this.config, this.eval, this.depth, this.tt);
+            allWorkers.add(worker);
+            return worker;
+        });
+    }
+
+    public ParallelExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ttMegabytes,
+                                    int threads) {
+        this(config, eval, depth, useCache, ttMegabytes, threads, DEFAULT_SPLIT_PLIES);
+    }
+
+    public ParallelExpectimaxPlayer(GameConfig config, Evaluator eval, int depth) {
+        this(config, eval, depth, true, DEFAULT_TT_MB, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int threads() {
+        return searchPool.threads();
+    }
+
+    /** Shuts down the pool if this player created it; a shared pool is left running. */
+    @Override
+    public void close() {
+        searchPool.close();
+    }
+
+    public int splitPlies() {
+        return splitPlies;
+    }
+
+    @Override
+    public Move chooseMove(Board board) {
+        // one ply below the root is already the frontier: nothing worth forking
+        if (depth == 1) return super.chooseMove(board);
+
+        long t0 = System.nanoTime();
+        if (tt != null) tt.newSearch();
+
+        int plies = depth * 2;
+        Fork[] roots = new Fork[4];
+        int moves;
+        if (packed && BitBoard.supports(board, depth)) {
+            long[] after = new long[4];
+            moves = rules.afterstates(BitBoard.pack(board), after);
+            for (int bits = moves; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                roots[i] = new Fork(() -> splitChance(after[i], plies - 1));
+            }
+        } else {
+            Board[] after = new Board[4];
+            moves = rules.afterstates(board, after);
+            for (int bits = moves; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                roots[i] = new Fork(() -> splitChance(after[i], plies - 1));
+            }
+        }
+
+        Fork[] legal = new Fork[Integer.bitCount(moves)];
+        int k = 0;
+        for (Fork f : roots) if (f != null) legal[k++] = f;
+        if (legal.length > 0) {
+            pool.invoke(new Fork(() -> {
+                forkAll(legal);
+                return 0.0;
+            }));
+        }
+
+        // same tie-break as the sequential root
+        double bestScore = Double.NEGATIVE_INFINITY;
+        Move bestMove = Move.LEFT;
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            if (roots[i].value >= bestScore) {
+                bestScore = roots[i].value;
+                bestMove = Move.byOrdinal(i);
+            }
+        }
+
+        recordDepth(depth);
+        searchNanos += (System.nanoTime() - t0);
+        return bestMove;
+    }
+
+    // one subtree; value is read after the task has been joined
+    private static final class Fork extends RecursiveAction {
+        // tasks are never serialized; RecursiveAction just happens to be Serializable
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient DoubleSupplier search;
+        private double value;
+
+        Fork(DoubleSupplier search) {
+            this.search = search;
+        }
+
+        @Override
+        protected void compute() {
+            value = search.getAsDouble();
+        }
+    }
+
+    private void forkAll(Fork[] tasks) {
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            // not on one of our threads (never the case from chooseMove): same values, one at a time
+            for (Fork f : tasks) f.compute();
+        }
+    }
+
+    /* =========================
+       Packed 4x4 boards
+       ========================= */
+
+    private double search(long board, int pliesLeft, boolean playerTurn) {
+        // a player node is split when its chance children are
+        if ((playerTurn ? pliesLeft - 1 : pliesLeft) < splitPlies) {
+            return workers.get().value(board, pliesLeft, playerTurn);
+        }
+        return playerTurn ? splitPlayer(board, pliesLeft) : splitChance(board, pliesLeft);
+    }
+
+    private double splitPlayer(long board, int pliesLeft) {
+        ExpectimaxPlayer counters = workers.get();
+        counters.nodes++;
+
+        long key = 0L;
+        if (useCache) {
+            key = cacheKey(board);
+            double cached = tt.get(key, pliesLeft, TT_PLAYER);
+            if (!Double.isNaN(cached)) return cached;
+        }
+
+        long[] after = new long[4];
+        int moves = rules.afterstates(board, after);
+        if (moves == 0) counters.evalCalls++;
+
+        Fork[] children = new Fork[Integer.bitCount(moves)];
+        int k = 0;
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            long child = after[Integer.numberOfTrailingZeros(bits)];
+            children[k++] = new Fork(() -> search(child, pliesLeft - 1, false));
+        }
+        forkAll(children);
+
+        double best = Double.NEGATIVE_INFINITY;
+        for (Fork f : children) best = Math.max(best, f.value);
+
+        if (useCache) tt.put(key, pliesLeft, TT_PLAYER, best);
+        return best;
+    }
+
+    private double splitChance(long board, int pliesLeft) {
+        ExpectimaxPlayer counters = workers.get();
+        counters.nodes++;
+        counters.chanceNodes++;
+
+        long empties = BitBoard.emptyMask(board);
+        if (empties == 0) {
+            return search(board, pliesLeft - 1, true);
+        }
+
+        long key = 0L;
+        if (useCache) {
+            key = cacheKey(board);
+            double cached = tt.get(key, pliesLeft, TT_CHANCE);
+            if (!Double.isNaN(cached)) return cached;
+        }
+
+        int count = Long.bitCount(empties);
+        counters.chanceOutcomes += (long) count * 2;
+
+        // children[2c] spawns a 2 on the c-th empty cell, children[2c + 1] a 4
+        Fork[] children = new Fork[count * 2];
+        int k = 0;
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            children[k++] = new Fork(() -> search(BitBoard.place(board, cell, 1), pliesLeft - 1, true));
+            children[k++] = new Fork(() -> search(BitBoard.place(board, cell, 2), pliesLeft - 1, true));
+        }
+        forkAll(children);
+
+        double result = foldChance(children, count);
+        if (useCache) tt.put(key, pliesLeft, TT_CHANCE, result);
+        return result;
+    }
+
+    // the sum ExpectimaxPlayer#chanceValue computes, term for term
+    private double foldChance(Fork[] children, int count) {
+        double pCell = 1.0 / count;
+        double p2 = spawner.getP2();
+        double p4 = 1.0 - p2;
+
+        double expected = 0.0;
+        for (int k = 0; k < children.length; k += 2) {
+            expected += pCell * p2 * children[k].value;
+            expected += pCell * p4 * children[k + 1].value;
+        }
+        return expected;
+    }
+
+    /* =========================
+       Other sizes: Board objects above the cutoff, a SearchBoard below
+       ========================= */
+
+    private long cacheKey(Board board) {
+        return symmetricKeys ? board.canonicalHash() : board.zobristHash();
+    }
+
+    private double search(Board board, int pliesLeft, boolean playerTurn) {
+        if ((playerTurn ? pliesLeft - 1 : pliesLeft) < splitPlies) {
+            return workers.get().standaloneValue(board, pliesLeft, playerTurn);
+        }
+        return playerTurn ? splitPlayer(board, pliesLeft) : splitChance(board, pliesLeft);
+    }
+
+    private double splitPlayer(Board board, int pliesLeft) {
+        ExpectimaxPlayer counters = workers.get();
+        counters.nodes++;
+
+        long key = 0L;
+        if (useCache) {
+            key = cacheKey(board);
+            double cached = tt.get(key, pliesLeft, TT_STACK | TT_PLAYER);
+            if (!Double.isNaN(cached)) return cached;
+        }
+
+        Board[] after = new Board[4];
+        int moves = rules.afterstates(board, after);
+        if (moves == 0) counters.evalCalls++;
+
+        Fork[] children = new Fork[Integer.bitCount(moves)];
+        int k = 0;
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            Board child = after[Integer.numberOfTrailingZeros(bits)];
+            children[k++] = new Fork(() -> search(child, pliesLeft - 1, false));
+        }
+        forkAll(children);
+
+        double best = Double.NEGATIVE_INFINITY;
+        for (Fork f : children) best = Math.max(best, f.value);
+
+        if (useCache) tt.put(key, pliesLeft, TT_STACK | TT_PLAYER, best);
+        return best;
+    }
+
+    private double splitChance(Board board, int pliesLeft) {
+        ExpectimaxPlayer counters = workers.get();
+        counters.nodes++;
+        counters.chanceNodes++;
+
+        long empties = board.emptyMask();
+        if (empties == 0) {
+            return search(board, pliesLeft - 1, true);
+        }
+
+        long key = 0L;
+        if (useCache) {
+            key = cacheKey(board);
+            double cached = tt.get(key, pliesLeft, TT_STACK | TT_CHANCE);
+            if (!Double.isNaN(cached)) return cached;
+        }
+
+        int count = Long.bitCount(empties);
+        counters.chanceOutcomes += (long) count * 2;
+
+        Fork[] children = new Fork[count * 2];
+        int k = 0;
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            children[k++] = new Fork(() -> search(board.placeExponent(cell, 1), pliesLeft - 1, true));
+            children[k++] = new Fork(() -> search(board.placeExponent(cell, 2), pliesLeft - 1, true));
+        }
+        forkAll(children);
+
+        double result = foldChance(children, count);
+        if (useCache) tt.put(key, pliesLeft, TT_STACK | TT_CHANCE, result);
+        return result;
+    }
+
+    /* =========================
+       Stats: the root's own counters plus every worker's
+       ========================= */
+
+    @Override
+    public void resetStats() {
+        super.resetStats();
+        for (ExpectimaxPlayer w : allWorkers) w.resetStats();
+        // the shared table belongs to this player
+        if (tt != null) tt.resetStats();
+    }
+
+    @Override
+    public SearchStats getStats() {
+        SearchStats s = super.getStats();
+        long n = s.nodes(), e = s.evalCalls(), cn = s.chanceNodes(), co = s.chanceOutcomes(), p = s.pruned();
+        for (ExpectimaxPlayer w : allWorkers) {
+            SearchStats ws = w.getStats();
+            n += ws.nodes();
+            e += ws.evalCalls();
+            cn += ws.chanceNodes();
+            co += ws.chanceOutcomes();
+            p += ws.pruned();
+        }
+        return new SearchStats(n, e, cn, co, s.searchNanos(),
+                s.cacheHits(), s.cacheCarriedHits(), s.cacheMisses(), s.cacheCollisions(), s.cacheReplacements(), p, s.movesByDepth());
+    }
+}
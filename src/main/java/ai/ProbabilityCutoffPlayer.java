@@ -0,0 +1,167 @@
+package ai;
+
+import ai.eval.Evaluator;
+import game.core.BitBoard;
+import game.core.SearchBoard;
+import game.runtime.GameConfig;
+
+/**
+ * Expectimax that stops searching unlikely lines: it tracks the probability
+ * of the spawns along the current path (the product of every pCell * p2/p4
+ * above the node) and, once a spawned position falls below minProbability,
+ * scores it with the evaluator instead of searching it further.
+ *
+ * Chains of unlikely 4-spawns are cut after a couple of steps while the
+ * likely lines still get the full depth, so the tree shrinks by orders of
+ * magnitude at depth 4+ for a small change in play. Cut positions count as
+ * pruned in SearchStats.
+ *
+ * The table keys on position and plies only, so, like the sampling player
+ * with its approximated nodes, this one caches only nodes whose value does not
+ * depend on the path: those with no cut possible anywhere below them, given
+ * the path probability they were reached with (see searchesInFull). Every
+ * cached value is then the full-depth one, and the move chosen does not
+ * depend on search order.
+ */
+public class ProbabilityCutoffPlayer extends ExpectimaxPlayer {
+
+    /** Cutoff when none is given (see --min-prob). */
+    public static final double DEFAULT_MIN_PROBABILITY = 1e-4;
+
+    private final double minProbability;
+
+    // most empty cells a chance node can have
+    private final int cells;
+
+    // probability of the path from the root to the node being searched
+    private double pathProbability = 1.0;
+
+    public ProbabilityCutoffPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ttMegabytes,
+                                   double minProbability) {
+        super(config, eval, depth, useCache, ttMegabytes);
+        if (!(minProbability >= 0.0 && minProbability < 1.0)) {
+            throw new IllegalArgumentException("minProbability must be in [0, 1), got " + minProbability);
+        }
+        this.minProbability = minProbability;
+        this.cells = config.gridSize() * config.gridSize();
+    }
+
+    public ProbabilityCutoffPlayer(GameConfig config, Evaluator eval, int depth) {
+        this(config, eval, depth, true, DEFAULT_TT_MB, DEFAULT_MIN_PROBABILITY);
+    }
+
+    public double minProbability() {
+        return minProbability;
+    }
+
+    @Override
+    protected boolean shouldCache(SearchBoard board, int pliesLeft, boolean playerTurn) {
+        return searchesInFull(pliesLeft - 1, cells);
+    }
+
+    @Override
+    protected boolean shouldCacheChance(SearchBoard board, int pliesLeft, long empties) {
+        return searchesInFull(pliesLeft, Long.bitCount(empties));
+    }
+
+    @Override
+    protected boolean shouldCache(long board, int pliesLeft, boolean playerTurn) {
+        return searchesInFull(pliesLeft - 1, cells);
+    }
+
+    @Override
+    protected boolean shouldCacheChance(long board, int pliesLeft, long empties) {
+        return searchesInFull(pliesLeft, Long.bitCount(empties));
+    }
+
+    /**
+     * Whether no spawn below a chance node with the given plies left and empty
+     * cells, reached with the current path probability, can fall under the
+     * cutoff. Deeper chance nodes are assumed to have every cell empty, the
+     * least likely spawns there. Chance nodes with one ply left never cut.
+     */
+    private boolean searchesInFull(int pliesLeft, int empties) {
+        double p2 = spawner.getP2();
+        // a spawn that cannot happen is cut with weight 0, which changes nothing
+        double rarest = p2 == 0.0 || p2 == 1.0 ? 1.0 : Math.min(p2, 1.0 - p2);
+        double probability = pathProbability;
+        for (int plies = pliesLeft; plies >= 2; plies -= 2) {
+            probability *= rarest / empties;
+            if (probability < minProbability) return false;
+            empties = cells;
+        }
+        return true;
+    }
+
+    @Override
+    protected double chanceValue(SearchBoard board, int pliesLeft, long empties) {
+        // the children are leaves anyway
+        if (pliesLeft == 1) return super.chanceValue(board, pliesLeft, empties);
+
+        int count = Long.bitCount(empties);
+        chanceOutcomes += (long) count * 2;
+
+        double pCell = 1.0 / count;
+        double p2 = spawner.getP2();
+        double p4 = 1.0 - p2;
+        double parent = pathProbability;
+
+        double expected = 0.0;
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            expected += pCell * p2 * spawnValue(board, cell, 1, pliesLeft - 1, parent * pCell * p2);
+            expected += pCell * p4 * spawnValue(board, cell, 2, pliesLeft - 1, parent * pCell * p4);
+        }
+        pathProbability = parent;
+        return expected;
+    }
+
+    private double spawnValue(SearchBoard board, int cell, int exponent, int pliesLeft, double probability) {
+        if (probability >= minProbability) {
+            pathProbability = probability;
+            return spawnValue(board, cell, exponent, pliesLeft);
+        }
+        board.pushTile(cell, exponent);
+        double v = cut(eval.evaluate(board));
+        board.pop();
+        return v;
+    }
+
+    @Override
+    protected double chanceValue(long board, int pliesLeft, long empties) {
+        if (pliesLeft == 1) return super.chanceValue(board, pliesLeft, empties);
+
+        int count = Long.bitCount(empties);
+        chanceOutcomes += (long) count * 2;
+
+        double pCell = 1.0 / count;
+        double p2 = spawner.getP2();
+        double p4 = 1.0 - p2;
+        double parent = pathProbability;
+
+        double expected = 0.0;
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            expected += pCell * p2 * spawnValue(BitBoard.place(board, cell, 1), pliesLeft - 1, parent * pCell * p2);
+            expected += pCell * p4 * spawnValue(BitBoard.place(board, cell, 2), pliesLeft - 1, parent * pCell * p4);
+        }
+        pathProbability = parent;
+        return expected;
+    }
+
+    private double spawnValue(long board, int pliesLeft, double probability) {
+        if (probability >= minProbability) {
+            pathProbability = probability;
+            return value(board, pliesLeft, true);
+        }
+        return cut(eval.evaluate(board));
+    }
+
+    // a position scored where the full search would have expanded it
+    private double cut(double staticValue) {
+        nodes++;
+        evalCalls++;
+        pruned++;
+        return staticValue;
+    }
+}
@@ -0,0 +1,287 @@
+package ai;
+
+import game.core.BitBoard;
+import game.core.Board;
+import game.core.Move;
+import game.rules.Rules;
+import game.runtime.GameConfig;
+import game.spawn.Spawner;
+import game.util.Bits;
+import game.util.Rng;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores each legal move by playing many fast rollouts from its afterstate,
+ * to the end of the game or for at most {@code horizon} moves, and picks the
+ * move with the highest total. No tree and no evaluator: a search-free
+ * baseline for the expectimax players.
+ *
+ * A rollout spawns a tile, makes a move (uniformly random, or greedy: the
+ * move that leaves the most empty cells, first in Move order on ties) and
+ * repeats. It is worth the score of its final board, counted as if every tile
+ * was built by merging 2s ((e - 1) * 2^e for a 2^e tile); the root's own
+ * score is the same for every move, so the totals compare score gained.
+ *
+ * Rollouts run on a ForkJoinPool, a few chunks per move: one of
+ * {@code threads} workers owned by the player and shut down by
+ * {@link #close()}, or a pool passed in and shared with other players. Rollout
+ * k of a move draws from its own Rng, seeded from (seed, board, move, k), so
+ * the chosen move does not depend on the thread count or on scheduling.
+ * Rollouts run on packed boards and allocate nothing; 4x4 only. As with
+ * ParallelExpectimaxPlayer, the work happens on pool threads, so compare wall
+ * time rather than the game thread's CPU time.
+ *
+ * In SearchStats, nodes are rollout moves and evalCalls are rollouts.
+ */
+public class RolloutPlayer implements SearchPlayer, AutoCloseable {
+
+    public enum Policy { RANDOM, GREEDY }
+
+    /** Rollouts per legal move when none is given (see --rollouts). */
+    public static final int DEFAULT_ROLLOUTS = 100;
+    /** Rollout length cap when none is given (see --horizon); 0 plays to the end of the game. */
+    public static final int DEFAULT_HORIZON = 0;
+
+    private static final long DEFAULT_SEED = 0x2048L;
+
+    // tile score of a 2^e tile built from 2s
+    private static final long[] TILE_SCORE = new long[BitBoard.MAX_EXPONENT + 1];
+
+    static {
+        for (int e = 2; e <= BitBoard.MAX_EXPONENT; e++) TILE_SCORE[e] = (e - 1L) << e;
+    }
+
+    private final Rules rules;
+    private final Spawner spawner;
+    private final int rollouts;
+    private final int horizon;
+    private final Policy policy;
+    private final long seed;
+    private final SearchPool searchPool;
+    private final ForkJoinPool pool;
+
+    private final long[] rootAfterstates = new long[4];
+
+    // one rollout state per pool thread
+    private final ThreadLocal<Worker> workers;
+    private final Queue<Worker> allWorkers = new ConcurrentLinkedQueue<>();
+
+    private long decisions;
+    private long searchNanos;
+
+    public RolloutPlayer(GameConfig config, int rollouts, int horizon, Policy policy, int threads, long seed) {
+        this(config, rollouts, horizon, policy, SearchPool.owned(threads), seed);
+    }
+
+    public RolloutPlayer(GameConfig config, int rollouts, int horizon, Policy policy, int threads) {
+        this(config, rollouts, horizon, policy, threads, DEFAULT_SEED);
+    }
+
+    /** Plays its rollouts on the given pool, which this player does not shut down. */
+    public RolloutPlayer(GameConfig config, int rollouts, int horizon, Policy policy, ForkJoinPool pool) {
+        this(config, rollouts, horizon, policy, SearchPool.shared(pool), DEFAULT_SEED);
+    }
+
+    private RolloutPlayer(GameConfig config, int rollouts, int horizon, Policy policy, SearchPool searchPool,
+                          long seed) {
+        if (config.gridSize() != BitBoard.SIZE) {
+            throw new IllegalArgumentException("RolloutPlayer only supports 4x4 boards, got " + config.gridSize());
+        }
+        if (rollouts <= 0) throw new IllegalArgumentException("rollouts must be > 0, got " + rollouts);
+        if (horizon < 0) throw new IllegalArgumentException("horizon must be >= 0, got " + horizon);
+        this.rules = config.rules();
+        this.spawner = config.spawner();
+        this.rollouts = rollouts;
+        this.horizon = horizon;
+        this.policy = policy;
+        this.seed = seed;
+        this.searchPool = searchPool;
+        this.pool = searchPool.pool();
+        this.workers = ThreadLocal.withInitial(() -> {
+            Worker worker = new Worker();
+            allWorkers.add(worker);
+            return worker;
+        });
+    }
+
+    public int rollouts() {
+        return rollouts;
+    }
+
+    public int horizon() {
+        return horizon;
+    }
+
+    public Policy policy() {
+        return policy;
+    }
+
+    public int threads() {
+        return searchPool.threads();
+    }
+
+    /** Shuts down the pool if this player created it; a shared pool is left running. */
+    @Override
+    public void close() {
+        searchPool.close();
+    }
+
+    @Override
+    public Move chooseMove(Board board) {
+        if (!BitBoard.supports(board)) {
+            throw new IllegalArgumentException("RolloutPlayer needs tiles below 2^" + BitBoard.MAX_EXPONENT);
+        }
+        long t0 = System.nanoTime();
+
+        long root = BitBoard.pack(board);
+        int moves = rules.afterstates(root, rootAfterstates);
+
+        // a few chunks per move and thread, so idle threads can steal
+        int chunks = Math.min(rollouts, pool.getParallelism() * 2);
+        List<Chunk> tasks = new ArrayList<>(Integer.bitCount(moves) * chunks);
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            for (int c = 0; c < chunks; c++) {
+                Chunk task = new Chunk(root, rootAfterstates[i], i, rollouts * c / chunks, rollouts * (c + 1) / chunks);
+                pool.execute(task);
+                tasks.add(task);
+            }
+        }
+
+        // integer totals, so the order they finish in does not matter
+        long[] totals = new long[4];
+        for (Chunk task : tasks) totals[task.move] += task.join();
+
+        long bestTotal = Long.MIN_VALUE;
+        Move bestMove = Move.LEFT;
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            if (totals[i] >= bestTotal) {
+                bestTotal = totals[i];
+                bestMove = Move.byOrdinal(i);
+            }
+        }
+
+        decisions++;
+        searchNanos += (System.nanoTime() - t0);
+        return bestMove;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        long steps = 0;
+        long played = 0;
+        for (Worker w : allWorkers) {
+            steps += w.steps;
+            played += w.rollouts;
+        }
+        return new SearchStats(steps, played, 0, 0, searchNanos, 0, 0, 0, 0, 0, 0, new long[]{decisions});
+    }
+
+    @Override
+    public void resetStats() {
+        for (Worker w : allWorkers) {
+            w.steps = 0;
+            w.rollouts = 0;
+        }
+        decisions = 0;
+        searchNanos = 0;
+    }
+
+    // SplitMix64 over (seed, root, move, k): neighbouring rollouts get unrelated streams
+    private long rolloutSeed(long root, int move, int k) {
+        long z = seed + 0x9E3779B97F4A7C15L * (root ^ ((long) move << 32 | k) * 0xD1B54A32D192ED03L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long tileScore(long board) {
+        long score = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) score += TILE_SCORE[BitBoard.exponent(board, i)];
+        return score;
+    }
+
+    // rollouts [from, to) of one move; the total of their final scores
+    private final class Chunk extends RecursiveTask<Long> {
+        // tasks are never serialized; RecursiveTask just happens to be Serializable
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        final long root;
+        final long afterstate;
+        final int move;
+        final int from;
+        final int to;
+
+        Chunk(long root, long afterstate, int move, int from, int to) {
+            this.root = root;
+            this.afterstate = afterstate;
+            this.move = move;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            Worker w = workers.get();
+            long total = 0;
+            for (int k = from; k < to; k++) {
+                total += w.rollout(afterstate, rolloutSeed(root, move, k));
+            }
+            return total;
+        }
+    }
+
+    private final class Worker {
+        final Rng rng = new Rng(0L);
+        final long[] after = new long[4];
+
+        // read by getStats between moves, when no rollout is running
+        long steps;
+        long rollouts;
+
+        long rollout(long board, long rolloutSeed) {
+            rng.reseed(rolloutSeed);
+
+            // an afterstate always has an empty cell: a move either slides a tile or merges two
+            int played = 0;
+            while (horizon == 0 || played < horizon) {
+                board = spawner.sample(board, rng);
+                int moves = rules.afterstates(board, after);
+                if (moves == 0) break;
+                board = after[policy == Policy.GREEDY ? greedy(moves) : randomMove(moves)];
+                played++;
+            }
+
+            steps += played;
+            rollouts++;
+            return tileScore(board);
+        }
+
+        private int randomMove(int moves) {
+            return Bits.nthSetBit(moves, rng.nextInt(Integer.bitCount(moves)));
+        }
+
+        private int greedy(int moves) {
+            int best = -1;
+            int bestEmpty = -1;
+            for (int bits = moves; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                int empty = BitBoard.countEmpty(after[i]);
+                if (empty > bestEmpty) {
+                    bestEmpty = empty;
+                    best = i;
+                }
+            }
+            return best;
+        }
+    }
+}
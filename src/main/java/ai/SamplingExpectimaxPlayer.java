@@ -1,7 +1,8 @@
 package ai;
 
 import ai.eval.Evaluator;
-import game.core.Board;
+import game.core.BitBoard;
+import game.core.SearchBoard;
 import game.runtime.GameConfig;
 
 public class SamplingExpectimaxPlayer extends ExpectimaxPlayer {
@@ -9,7 +10,12 @@ public class SamplingExpectimaxPlayer extends ExpectimaxPlayer {
     private final int ignore4Threshold;
 
     public SamplingExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ignore4Threshold) {
-        super(config, eval, depth, useCache);
+        this(config, eval, depth, useCache, ignore4Threshold, DEFAULT_TT_MB);
+    }
+
+    public SamplingExpectimaxPlayer(GameConfig config, Evaluator eval, int depth, boolean useCache, int ignore4Threshold,
+                                    int ttMegabytes) {
+        super(config, eval, depth, useCache, ttMegabytes);
         this.ignore4Threshold = ignore4Threshold;
     }
 
@@ -18,21 +24,30 @@ public class SamplingExpectimaxPlayer extends ExpectimaxPlayer {
     }
 
     @Override
-    protected boolean shouldCacheChance(Board board, int pliesLeft, int[] empties) {
+    protected boolean shouldCacheChance(SearchBoard board, int pliesLeft, long empties) {
         // Don't cache approximated chance nodes (empties > threshold)
-        return empties.length <= ignore4Threshold;
+        return Long.bitCount(empties) <= ignore4Threshold;
     }
 
     @Override
-    protected double chanceValue(Board board, int pliesLeft, int[] empties) {
-        if (empties.length > ignore4Threshold) {
+    protected double chanceValue(SearchBoard board, int pliesLeft, long empties) {
+        int count = Long.bitCount(empties);
+        if (count > ignore4Threshold) {
             // instrumentation: only 1 outcome per empty (2-only approximation)
-            chanceOutcomes += empties.length;
+            chanceOutcomes += count;
 
-            double pCell = 1.0 / empties.length;
+            double pCell = 1.0 / count;
             double expected = 0.0;
-            for (int cell : empties) {
-                expected += pCell * value(board.placeTile(cell, 2), pliesLeft - 1, true);
+            if (pliesLeft == 1) {
+                double[] v2 = leafSpawnValues(board, empties, 1);
+                for (int k = 0; k < count; k++) {
+                    expected += pCell * v2[k];
+                }
+                return expected;
+            }
+            for (long m = empties; m != 0; m &= m - 1) {
+                int cell = Long.numberOfTrailingZeros(m);
+                expected += pCell * spawnValue(board, cell, 1, pliesLeft - 1);
             }
             return expected;
         }
@@ -40,4 +55,34 @@ public class SamplingExpectimaxPlayer extends ExpectimaxPlayer {
         // Fall back to exact model
         return super.chanceValue(board, pliesLeft, empties);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean shouldCacheChance(long board, int pliesLeft, long empties) {
+        return Long.bitCount(empties) <= ignore4Threshold;
+    }
+
+    @Override
+    protected double chanceValue(long board, int pliesLeft, long empties) {
+        int count = Long.bitCount(empties);
+        if (count > ignore4Threshold) {
+            chanceOutcomes += count;
+
+            double pCell = 1.0 / count;
+            double expected = 0.0;
+            if (pliesLeft == 1) {
+                double[] v2 = leafSpawnValues(board, empties, 1);
+                for (int k = 0; k < count; k++) {
+                    expected += pCell * v2[k];
+                }
+                return expected;
+            }
+            for (long m = empties; m != 0; m &= m - 1) {
+                int cell = Long.numberOfTrailingZeros(m);
+                expected += pCell * value(BitBoard.place(board, cell, 1), pliesLeft - 1, true);
+            }
+            return expected;
+        }
+
+        return super.chanceValue(board, pliesLeft, empties);
+    }
+}
@@ -0,0 +1,28 @@
+package ai;
+
+/**
+ * A player that counts its search work; ExperimentRunner collects the counts
+ * per game. Players without a fixed depth (rollouts) leave movesByDepth at
+ * index 0.
+ */
+public interface SearchPlayer extends Player {
+
+    record SearchStats(
+            long nodes,
+            long evalCalls,
+            long chanceNodes,
+            long chanceOutcomes,
+            long searchNanos,
+            long cacheHits,
+            long cacheCarriedHits, // hits on entries from an earlier move's search
+            long cacheMisses,
+            long cacheCollisions,
+            long cacheReplacements,
+            long pruned,
+            long[] movesByDepth
+    ) {}
+
+    SearchStats getStats();
+
+    void resetStats();
+}
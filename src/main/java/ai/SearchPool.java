@@ -0,0 +1,43 @@
+package ai;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The ForkJoinPool a pooled player searches on: one it created, shut down
+ * when the player is closed, or one passed in, which several players may
+ * share and which its creator shuts down.
+ */
+final class SearchPool implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final boolean owned;
+
+    private SearchPool(ForkJoinPool pool, boolean owned) {
+        this.pool = pool;
+        this.owned = owned;
+    }
+
+    static SearchPool owned(int threads) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be > 0, got " + threads);
+        return new SearchPool(new ForkJoinPool(threads), true);
+    }
+
+    static SearchPool shared(ForkJoinPool pool) {
+        if (pool == null) throw new IllegalArgumentException("pool must not be null");
+        return new SearchPool(pool, false);
+    }
+
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    int threads() {
+        return pool.getParallelism();
+    }
+
+    /** Shuts the pool down if it was created here; a shared pool is left running. */
+    @Override
+    public void close() {
+        if (owned) pool.shutdown();
+    }
+}
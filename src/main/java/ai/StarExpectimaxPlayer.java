@@ -0,0 +1,192 @@
+package ai;
+
+import ai.eval.BoundedEvaluator;
+import game.core.BitBoard;
+import game.core.Board;
+import game.core.Move;
+import game.runtime.GameConfig;
+
+/**
+ * Expectimax with Star1 pruning at chance nodes: it picks the same move as
+ * ExpectimaxPlayer while skipping spawns that cannot change that choice.
+ *
+ * Every root move after the first is searched against a window: the best
+ * score so far (alpha). A chance node knows the weighted sum of the outcomes
+ * it has searched, and the evaluator bounds every outcome it has not (see
+ * BoundedEvaluator#upperBound(long, int)). Once even the best case for the rest cannot
+ * lift the node above alpha, the rest is skipped (counted as pruned) and an
+ * upper bound below alpha is returned instead of the value. Player nodes pass
+ * the larger of alpha and their best move so far down to each move.
+ *
+ * Only upper bounds can cut here: there are no min nodes, so nothing ever
+ * narrows the window from above. For the same reason Star2 probing, which
+ * proves lower bounds, is left out, and lost positions (-infinity) make any
+ * evaluator lower bound unusable as the bound of a subtree.
+ *
+ * Bounded results never reach the table; only exact values are cached. Packed
+ * 4x4 searches prune; other boards get the plain expectimax search.
+ */
+public class StarExpectimaxPlayer extends ExpectimaxPlayer {
+
+    private final BoundedEvaluator bounds;
+    // keeps exact ties with alpha (and rounding near it) from being cut
+    private final double margin;
+
+    // afterstate scratch, one row per plies-left value, like the base class
+    private final long[][] afterstates;
+
+    public StarExpectimaxPlayer(GameConfig config, BoundedEvaluator eval, int depth, boolean useCache,
+                                int ttMegabytes) {
+        super(config, eval, depth, useCache, ttMegabytes);
+        this.bounds = eval;
+        this.margin = 1e-6 * Math.max(1.0, Math.abs(eval.upperBound()));
+        this.afterstates = new long[depth * 2 + 1][4];
+    }
+
+    public StarExpectimaxPlayer(GameConfig config, BoundedEvaluator eval, int depth) {
+        this(config, eval, depth, true, DEFAULT_TT_MB);
+    }
+
+    @Override
+    public Move chooseMove(Board board) {
+        if (!packed || !BitBoard.supports(board, depth)) return super.chooseMove(board);
+
+        long t0 = System.nanoTime();
+        if (tt != null) tt.newSearch();
+
+        Move bestMove = searchRoot(BitBoard.pack(board), depth * 2);
+        recordDepth(depth);
+
+        searchNanos += (System.nanoTime() - t0);
+        return bestMove;
+    }
+
+    private Move searchRoot(long board, int plies) {
+        long[] after = afterstates[plies];
+        int moves = rules.afterstates(board, after);
+
+        double bestScore = Double.NEGATIVE_INFINITY;
+        Move bestMove = Move.LEFT;
+
+        for (int bits = moves; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            // a pruned move scores below bestScore, so ties still go to the later move
+            double score = search(after[i], plies - 1, false, bestScore);
+            if (score >= bestScore) {
+                bestScore = score;
+                bestMove = Move.byOrdinal(i);
+            }
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * The node's value if it is above alpha; otherwise some upper bound on it
+     * that is at most alpha. Counts nodes like value() does.
+     */
+    private double search(long board, int pliesLeft, boolean playerTurn, double alpha) {
+        // nothing to cut against: the plain search is exact and cheaper
+        if (alpha == Double.NEGATIVE_INFINITY) return value(board, pliesLeft, playerTurn);
+
+        nodes++;
+
+        if (pliesLeft == 0) {
+            evalCalls++;
+            return eval.evaluate(board);
+        }
+
+        if (playerTurn) {
+            boolean cacheThis = useCache && shouldCache(board, pliesLeft, true);
+            long key = 0L;
+
+            if (cacheThis) {
+                key = cacheKey(board);
+                double cached = tt.get(key, pliesLeft, TT_PLAYER);
+                if (!Double.isNaN(cached)) return cached;
+            }
+
+            long[] after = afterstates[pliesLeft];
+            int moves = rules.afterstates(board, after);
+
+            double best = Double.NEGATIVE_INFINITY;
+            if (moves == 0) {
+                evalCalls++;
+            }
+            for (int bits = moves; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                best = Math.max(best, search(after[i], pliesLeft - 1, false, Math.max(alpha, best)));
+            }
+
+            if (cacheThis && best > alpha) tt.put(key, pliesLeft, TT_PLAYER, best);
+            return best;
+        }
+
+        // Chance node
+        chanceNodes++;
+
+        long empties = BitBoard.emptyMask(board);
+        if (empties == 0) {
+            return search(board, pliesLeft - 1, true, alpha);
+        }
+
+        boolean cacheThisChance = useCache && shouldCacheChance(board, pliesLeft, empties);
+        long key = 0L;
+
+        if (cacheThisChance) {
+            key = cacheKey(board);
+            double cached = tt.get(key, pliesLeft, TT_CHANCE);
+            if (!Double.isNaN(cached)) return cached;
+        }
+
+        // the last ply is one batch of evaluations, exact and not worth cutting
+        boolean leaves = pliesLeft == 1;
+        double result = leaves
+                ? chanceValue(board, pliesLeft, empties)
+                : boundedChance(board, pliesLeft, empties, alpha);
+
+        if (cacheThisChance && (leaves || result > alpha)) tt.put(key, pliesLeft, TT_CHANCE, result);
+        return result;
+    }
+
+    // Star1: the same outcomes in the same order as chanceValue, stopping once
+    // the rest, all at the evaluator's upper bound, could not lift the sum past alpha
+    private double boundedChance(long board, int pliesLeft, long empties, double alpha) {
+        int count = Long.bitCount(empties);
+        chanceOutcomes += (long) count * 2;
+
+        double pCell = 1.0 / count;
+        double p2 = spawner.getP2();
+        double p4 = 1.0 - p2;
+
+        // every outcome spawns once here and at most once per chance node below
+        double upper = bounds.upperBound(board, (pliesLeft + 1) / 2);
+
+        double expected = 0.0;
+        int left = count * 2;
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            for (int exponent = 1; exponent <= 2; exponent++, left--) {
+                // one lost outcome makes the whole node lost
+                if (expected == Double.NEGATIVE_INFINITY) {
+                    pruned += left;
+                    return expected;
+                }
+                double w = pCell * (exponent == 1 ? p2 : p4);
+                if (w == 0.0) continue;
+
+                // probability mass of the outcomes after this one
+                double rest = (left - 1) / 2 * pCell + (left % 2 == 0 ? p4 * pCell : 0.0);
+                double childAlpha = (alpha - margin - expected - upper * rest) / w;
+
+                double v = search(BitBoard.place(board, cell, exponent), pliesLeft - 1, true, childAlpha);
+                if (v <= childAlpha) {
+                    pruned += left - 1;
+                    return expected + w * v + upper * rest;
+                }
+                expected += w * v;
+            }
+        }
+        return expected;
+    }
+}
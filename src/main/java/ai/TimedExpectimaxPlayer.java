@@ -0,0 +1,118 @@
+package ai;
+
+import ai.eval.Evaluator;
+import game.core.Board;
+import game.core.Move;
+import game.core.SearchBoard;
+import game.runtime.GameConfig;
+
+import java.io.Serial;
+
+/**
+ * Anytime expectimax: searches depth 1, 2, 3... until the per-move budget
+ * runs out (or the maximum depth is done) and plays the best move of the
+ * deepest iteration that completed.
+ *
+ * An iteration that overruns the deadline is abandoned from inside the
+ * search; nothing it was computing has been stored in the cache yet, so the
+ * table stays exact. The table is kept across iterations of the same move
+ * (one generation per move, see SearchTable#newSearch), so later iterations
+ * reuse what earlier ones stored. Depth 1 always completes, so a move is
+ * always found.
+ *
+ * With reuseDeeper, the previous move's deepest iteration also answers this
+ * move's shallower iterations: they finish almost for free, leaving the
+ * budget to the depths the previous move did not reach.
+ */
+public class TimedExpectimaxPlayer extends ExpectimaxPlayer {
+
+    // nodes between deadline checks: a clock read every node would cost more than the node
+    private static final int POLL_NODES = 1024;
+
+    private final long moveNanos;
+
+    private long deadline;
+    private boolean abortable;
+    private int untilPoll = POLL_NODES;
+
+    /**
+     * @param maxDepth    deepest iteration searched, however much time is left
+     * @param moveMillis  per-move budget
+     * @param ttMegabytes transposition table size, ignored when useCache is false
+     */
+    public TimedExpectimaxPlayer(GameConfig config, Evaluator eval, int maxDepth, long moveMillis,
+                                 boolean useCache, int ttMegabytes) {
+        this(config, eval, maxDepth, moveMillis, useCache, ttMegabytes, false);
+    }
+
+    /** @param reuseDeeper let cached results searched deeper answer shallower lookups */
+    public TimedExpectimaxPlayer(GameConfig config, Evaluator eval, int maxDepth, long moveMillis,
+                                 boolean useCache, int ttMegabytes, boolean reuseDeeper) {
+        super(config, eval, maxDepth, useCache, ttMegabytes, reuseDeeper);
+        if (moveMillis <= 0) throw new IllegalArgumentException("moveMillis must be > 0, got " + moveMillis);
+        this.moveNanos = moveMillis * 1_000_000L;
+    }
+
+    public long moveMillis() {
+        return moveNanos / 1_000_000L;
+    }
+
+    @Override
+    public Move chooseMove(Board board) {
+        long t0 = System.nanoTime();
+        if (tt != null) tt.newSearch();
+        deadline = t0 + moveNanos;
+
+        Move bestMove = null;
+        int reached = 0;
+        for (int d = 1; d <= depth; d++) {
+            long iterationStart = System.nanoTime();
+            abortable = d > 1;
+            try {
+                bestMove = searchToDepth(board, d);
+                reached = d;
+            } catch (DeadlineReached e) {
+                break;
+            }
+
+            // the next iteration takes longer than this one; don't start what can't finish
+            long now = System.nanoTime();
+            if (now - iterationStart > deadline - now) break;
+        }
+        abortable = false;
+        recordDepth(reached);
+
+        searchNanos += (System.nanoTime() - t0);
+        return bestMove;
+    }
+
+    private void poll() {
+        untilPoll = POLL_NODES;
+        if (abortable && System.nanoTime() - deadline > 0) throw DeadlineReached.INSTANCE;
+    }
+
+    @Override
+    protected double value(long board, int pliesLeft, boolean playerTurn) {
+        if (--untilPoll == 0) poll();
+        return super.value(board, pliesLeft, playerTurn);
+    }
+
+    @Override
+    protected double value(SearchBoard board, int pliesLeft, boolean playerTurn) {
+        // an abandoned iteration leaves the stack dirty; the next search resets it
+        if (--untilPoll == 0) poll();
+        return super.value(board, pliesLeft, playerTurn);
+    }
+
+    // unwinds an overrunning iteration; control flow only, so no stack trace
+    private static final class DeadlineReached extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        static final DeadlineReached INSTANCE = new DeadlineReached();
+
+        private DeadlineReached() {
+            super("move deadline reached", null, false, false);
+        }
+    }
+}
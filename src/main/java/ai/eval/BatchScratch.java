@@ -0,0 +1,31 @@
+package ai.eval;
+
+import game.core.BitBoard;
+
+/**
+ * Per-thread buffers for scoring batches of boards, so the search frontier
+ * allocates nothing. Evaluators are shared by every search thread, so the
+ * buffers cannot live on the evaluator itself.
+ *
+ * Sized for the children of one chance node; larger batches allocate.
+ */
+final class BatchScratch {
+
+    /** Largest batch the buffers hold: one child per cell. */
+    static final int MAX_BATCH = BitBoard.CELLS;
+
+    private static final ThreadLocal<BatchScratch> LOCAL = ThreadLocal.withInitial(BatchScratch::new);
+
+    // Evaluator#evaluateSpawns: the child boards
+    final long[] children = new long[MAX_BATCH];
+
+    // ClassicEvaluator#evaluateBatch: unpacked cells and per-board accumulators
+    final int[] cells = new int[BitBoard.CELLS * MAX_BATCH];
+    final int[] acc = new int[ClassicEvaluator.BATCH_ACCUMULATORS * MAX_BATCH];
+
+    private BatchScratch() {}
+
+    static BatchScratch get() {
+        return LOCAL.get();
+    }
+}
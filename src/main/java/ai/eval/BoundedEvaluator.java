@@ -0,0 +1,23 @@
+package ai.eval;
+
+/**
+ * An evaluator that declares the range of its scores on packed 4x4 boards
+ * (see BitBoard): every board scores within [lowerBound(), upperBound()].
+ * Pruning searches (see StarExpectimaxPlayer) use the bounds to skip chance
+ * outcomes that can no longer change the result; looser bounds prune less.
+ */
+public interface BoundedEvaluator extends Evaluator {
+
+    double lowerBound();
+
+    double upperBound();
+
+    /**
+     * Upper bound on the score of any board reachable from this packed board
+     * by moves and at most the given number of spawns. Defaults to the global
+     * bound; tighter bounds let a pruning search cut more.
+     */
+    default double upperBound(long board, int spawns) {
+        return upperBound();
+    }
+}
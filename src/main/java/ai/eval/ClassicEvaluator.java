@@ -1,21 +1,226 @@
 package ai.eval;
 
+import game.core.BitBoard;
 import game.core.Board;
+import game.core.SearchBoard;
 
-public final class ClassicEvaluator implements Evaluator {
+import java.util.Arrays;
 
-    private static final double W_EMPTY = 2000.0;
-    private static final double W_MAX_TILE = 1.0;
-    private static final double W_MAX_IN_CORNER = 50.0;
-    private static final double W_MONOTONICITY = 10.0;
-    private static final double W_SMOOTHNESS = 5.0;
+public final class ClassicEvaluator implements BoundedEvaluator {
+
+    static final double W_EMPTY = 2000.0;
+    static final double W_MAX_TILE = 1.0;
+    static final double W_MAX_IN_CORNER = 50.0;
+    static final double W_MONOTONICITY = 10.0;
+    static final double W_SMOOTHNESS = 5.0;
+
+    // Score range on 4x4 boards with tiles up to 2^15. Monotonicity and smoothness
+    // are penalties: a line of 4 loses at most 22.5 to monotonicity (its rises and
+    // falls sum to at most 3 * 15), and each of the 24 adjacent pairs at most 14.
+    static final double UPPER_BOUND = W_EMPTY * (BitBoard.CELLS - 1) + W_MAX_TILE * (1 << BitBoard.MAX_EXPONENT)
+            + W_MAX_IN_CORNER;
+    static final double LOWER_BOUND = -(W_MONOTONICITY * 8 * 22.5 + W_SMOOTHNESS * 24 * 14);
+
+    // evaluateBatch accumulators per board: empty, maxExp, maxAt, smooth, mono, inc, dec
+    static final int BATCH_ACCUMULATORS = 7;
+
+    @Override
+    public double lowerBound() {
+        return LOWER_BOUND;
+    }
+
+    @Override
+    public double upperBound() {
+        return UPPER_BOUND;
+    }
+
+    @Override
+    public double upperBound(long board, int spawns) {
+        return upperBoundAfter(board, spawns);
+    }
+
+    /**
+     * Moves keep the sum of the tiles and spawns add 2 or 4 to it, so the max
+     * tile is at most the largest power of two within the reachable sums, and a
+     * sum s needs at least bitCount(s) tiles, which caps the empty cells.
+     */
+    static double upperBoundAfter(long board, int spawns) {
+        long sum = 0L;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            int e = BitBoard.exponent(board, i);
+            if (e != 0) sum += 1L << e;
+        }
+
+        long most = sum + 4L * spawns;
+        int fewestTiles = BitBoard.CELLS;
+        for (long s = sum; s <= most; s += 2) fewestTiles = Math.min(fewestTiles, Long.bitCount(s));
+
+        long maxTile = Math.min(Long.highestOneBit(most), 1L << BitBoard.MAX_EXPONENT);
+        return W_EMPTY * (BitBoard.CELLS - fewestTiles) + W_MAX_TILE * maxTile + W_MAX_IN_CORNER;
+    }
 
     @Override
     public double evaluate(Board board) {
-        BoardStats stats = scanBoard(board);
+        int n = board.getDimension();
+        byte[] exps = new byte[n * n];
+        for (int i = 0; i < exps.length; i++) {
+            exps[i] = (byte) board.exponentAt(i);
+        }
+        return evaluate(n, exps);
+    }
+
+    @Override
+    public double evaluate(SearchBoard board) {
+        return evaluate(board.getDimension(), board.current());
+    }
+
+    /**
+     * Works on the packed rows and the rows of the transpose (the columns)
+     * directly, so the search frontier allocates nothing. The terms are the
+     * same integers as the unpacked scan's and are summed in the same order,
+     * so scores match {@link #evaluate(Board)} exactly.
+     */
+    @Override
+    public double evaluate(long board) {
+        final int n = BitBoard.SIZE;
+        int emptyCount = 0;
+        int maxExp = 0;
+        int maxAt = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            int e = BitBoard.exponent(board, i);
+            if (e == 0) {
+                emptyCount++;
+            } else if (e > maxExp) {
+                // first max in row-major order, like scanBoard
+                maxExp = e;
+                maxAt = i;
+            }
+        }
+
+        long transposed = BitBoard.transpose(board);
+        int monotonicity = 0;
+        int smoothness = 0;
+        for (int line = 0; line < n; line++) {
+            int row = BitBoard.row(board, line);
+            int col = BitBoard.row(transposed, line);
+            monotonicity += lineMonotonicity(row) + lineMonotonicity(col);
+            smoothness += lineSmoothness(row) + lineSmoothness(col);
+        }
+
+        int maxTile = maxExp == 0 ? 0 : 1 << maxExp;
+        boolean maxInCorner = isCorner(n, maxAt / n, maxAt % n);
+        return W_EMPTY * emptyCount +
+                W_MAX_TILE * maxTile +
+                W_MAX_IN_CORNER * (maxInCorner ? 1.0 : 0.0) +
+                W_MONOTONICITY * monotonicity +
+                W_SMOOTHNESS * smoothness;
+    }
 
-        double monotonicity = monotonicity(board);
-        boolean maxInCorner = isCorner(board.getDimension(), stats.maxRow, stats.maxCol);
+    // packed line, cell j in bits 4j..4j+3: -min(rises, falls) between neighbours
+    private static int lineMonotonicity(int line) {
+        int inc = 0;
+        int dec = 0;
+        for (int j = 0; j + 1 < BitBoard.SIZE; j++) {
+            int d = ((line >>> (4 * j)) & 0xF) - ((line >>> (4 * j + 4)) & 0xF);
+            if (d > 0) inc += d;
+            else dec -= d;
+        }
+        return -Math.min(inc, dec);
+    }
+
+    // packed line: -|difference| between neighbouring non-empty tiles
+    private static int lineSmoothness(int line) {
+        int penalty = 0;
+        for (int j = 0; j + 1 < BitBoard.SIZE; j++) {
+            int a = (line >>> (4 * j)) & 0xF;
+            int b = (line >>> (4 * j + 4)) & 0xF;
+            if (a != 0 && b != 0) penalty -= Math.abs(a - b);
+        }
+        return penalty;
+    }
+
+    /**
+     * Unpacks the batch into structure-of-arrays form (one lane per cell, one
+     * slot per board) and computes each term as a flat loop over the batch,
+     * which the JIT can unroll and vectorize. Every term is an integer, so the
+     * scores equal {@link #evaluate(long)} exactly. Batches up to one chance
+     * node's children work in per-thread buffers (see BatchScratch).
+     */
+    @Override
+    public void evaluateBatch(long[] boards, int count, double[] out) {
+        final int n = BitBoard.SIZE;
+        BatchScratch scratch = count <= BatchScratch.MAX_BATCH ? BatchScratch.get() : null;
+
+        // cell i of board b at cells[i * count + b]
+        int[] cells = scratch != null ? scratch.cells : new int[BitBoard.CELLS * count];
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            int base = i * count;
+            int shift = 4 * i;
+            for (int b = 0; b < count; b++) {
+                cells[base + b] = (int) (boards[b] >>> shift) & 0xF;
+            }
+        }
+
+        // per-board accumulators, one block of `count` each
+        final int empty = 0, maxExp = count, maxAt = 2 * count, smooth = 3 * count, mono = 4 * count,
+                inc = 5 * count, dec = 6 * count;
+        int[] acc = scratch != null ? scratch.acc : new int[BATCH_ACCUMULATORS * count];
+        Arrays.fill(acc, 0, BATCH_ACCUMULATORS * count, 0);
+
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            int base = i * count;
+            for (int b = 0; b < count; b++) {
+                int e = cells[base + b];
+                acc[empty + b] += e == 0 ? 1 : 0;
+                // first max in row-major order, like scanBoard
+                boolean larger = e > acc[maxExp + b];
+                acc[maxExp + b] = larger ? e : acc[maxExp + b];
+                acc[maxAt + b] = larger ? i : acc[maxAt + b];
+            }
+        }
+
+        for (int line = 0; line < n; line++) {
+            // row `line`, then column `line`
+            for (int vertical = 0; vertical < 2; vertical++) {
+                Arrays.fill(acc, inc, dec + count, 0);
+                for (int j = 0; j + 1 < n; j++) {
+                    int cell = vertical == 0 ? line * n + j : j * n + line;
+                    int next = vertical == 0 ? cell + 1 : cell + n;
+                    int a = cell * count;
+                    int c = next * count;
+                    for (int b = 0; b < count; b++) {
+                        int x = cells[a + b];
+                        int y = cells[c + b];
+                        int d = x - y;
+                        acc[inc + b] += Math.max(d, 0);
+                        acc[dec + b] += Math.max(-d, 0);
+                        acc[smooth + b] -= (x != 0 && y != 0) ? Math.abs(d) : 0;
+                    }
+                }
+                for (int b = 0; b < count; b++) {
+                    acc[mono + b] -= Math.min(acc[inc + b], acc[dec + b]);
+                }
+            }
+        }
+
+        for (int b = 0; b < count; b++) {
+            int at = acc[maxAt + b];
+            boolean maxInCorner = isCorner(n, at / n, at % n);
+            int maxTile = acc[maxExp + b] == 0 ? 0 : 1 << acc[maxExp + b];
+            out[b] = W_EMPTY * acc[empty + b] +
+                    W_MAX_TILE * maxTile +
+                    W_MAX_IN_CORNER * (maxInCorner ? 1.0 : 0.0) +
+                    W_MONOTONICITY * acc[mono + b] +
+                    W_SMOOTHNESS * acc[smooth + b];
+        }
+    }
+
+    // exps: flat row-major tile exponents, 0 = empty
+    private static double evaluate(int n, byte[] exps) {
+        BoardStats stats = scanBoard(n, exps);
+
+        double monotonicity = monotonicity(n, exps);
+        boolean maxInCorner = isCorner(n, stats.maxRow, stats.maxCol);
 
         return
                 W_EMPTY * stats.emptyCount +
@@ -25,11 +230,9 @@ public final class ClassicEvaluator implements Evaluator {
                         W_SMOOTHNESS * stats.smoothness;
     }
 
-    private static BoardStats scanBoard(Board board) {
-        int n = board.getDimension();
-
+    private static BoardStats scanBoard(int n, byte[] exps) {
         int emptyCount = 0;
-        int maxTile = 0;
+        int maxExp = 0;
         int maxRow = 0;
         int maxCol = 0;
 
@@ -37,55 +240,55 @@ public final class ClassicEvaluator implements Evaluator {
 
         for (int r = 0; r < n; r++) {
             for (int c = 0; c < n; c++) {
-                int v = board.get(r, c);
+                int e = exps[r * n + c];
 
-                if (v == 0) {
+                if (e == 0) {
                     emptyCount++;
                     continue;
                 }
 
-                if (v > maxTile) {
-                    maxTile = v;
+                // Ties keep the first max tile in row-major order, which makes the
+                // corner term orientation-dependent: not isSymmetric().
+                if (e > maxExp) {
+                    maxExp = e;
                     maxRow = r;
                     maxCol = c;
                 }
 
                 // Penalize differences between adjacent non-empty tiles.
                 // Only check right and down to avoid double counting.
-                smoothness += smoothnessPenaltyToRight(board, r, c, v);
-                smoothness += smoothnessPenaltyDown(board, r, c, v);
+                smoothness += smoothnessPenaltyToRight(n, exps, r, c, e);
+                smoothness += smoothnessPenaltyDown(n, exps, r, c, e);
             }
         }
 
+        int maxTile = maxExp == 0 ? 0 : 1 << maxExp;
         return new BoardStats(emptyCount, maxTile, maxRow, maxCol, smoothness);
     }
 
-    private static double smoothnessPenaltyToRight(Board board, int r, int c, int v) {
-        int n = board.getDimension();
+    private static double smoothnessPenaltyToRight(int n, byte[] exps, int r, int c, int e) {
         if (c + 1 >= n) return 0.0;
 
-        int right = board.get(r, c + 1);
+        int right = exps[r * n + c + 1];
         if (right == 0) return 0.0;
 
-        return -Math.abs(exp(v) - exp(right));
+        return -Math.abs(e - right);
     }
 
-    private static double smoothnessPenaltyDown(Board board, int r, int c, int v) {
-        int n = board.getDimension();
+    private static double smoothnessPenaltyDown(int n, byte[] exps, int r, int c, int e) {
         if (r + 1 >= n) return 0.0;
 
-        int down = board.get(r + 1, c);
+        int down = exps[(r + 1) * n + c];
         if (down == 0) return 0.0;
 
-        return -Math.abs(exp(v) - exp(down));
+        return -Math.abs(e - down);
     }
 
-    private static double monotonicity(Board board) {
-        return monotonicityRows(board) + monotonicityCols(board);
+    private static double monotonicity(int n, byte[] exps) {
+        return monotonicityRows(n, exps) + monotonicityCols(n, exps);
     }
 
-    private static double monotonicityRows(Board board) {
-        int n = board.getDimension();
+    private static double monotonicityRows(int n, byte[] exps) {
         double score = 0.0;
 
         for (int r = 0; r < n; r++) {
@@ -93,8 +296,8 @@ public final class ClassicEvaluator implements Evaluator {
             double dec = 0.0;
 
             for (int c = 0; c + 1 < n; c++) {
-                int a = expOrZero(board.get(r, c));
-                int b = expOrZero(board.get(r, c + 1));
+                int a = exps[r * n + c];
+                int b = exps[r * n + c + 1];
 
                 if (a > b) inc += (a - b);
                 else dec += (b - a);
@@ -106,8 +309,7 @@ public final class ClassicEvaluator implements Evaluator {
         return score;
     }
 
-    private static double monotonicityCols(Board board) {
-        int n = board.getDimension();
+    private static double monotonicityCols(int n, byte[] exps) {
         double score = 0.0;
 
         for (int c = 0; c < n; c++) {
@@ -115,8 +317,8 @@ public final class ClassicEvaluator implements Evaluator {
             double dec = 0.0;
 
             for (int r = 0; r + 1 < n; r++) {
-                int a = expOrZero(board.get(r, c));
-                int b = expOrZero(board.get(r + 1, c));
+                int a = exps[r * n + c];
+                int b = exps[(r + 1) * n + c];
 
                 if (a > b) inc += (a - b);
                 else dec += (b - a);
@@ -134,14 +336,5 @@ public final class ClassicEvaluator implements Evaluator {
         return topOrBottom && leftOrRight;
     }
 
-    private static int expOrZero(int tileValue) {
-        return (tileValue == 0) ? 0 : exp(tileValue);
-    }
-
-    private static int exp(int tileValue) {
-        // 2048 tiles are powers of two, so log2 is safe and fast.
-        return 31 - Integer.numberOfLeadingZeros(tileValue);
-    }
-
     private record BoardStats(int emptyCount, int maxTile, int maxRow, int maxCol, double smoothness) {}
-}
\ No newline at end of file
+}
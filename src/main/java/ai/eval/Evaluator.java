@@ -1,8 +1,65 @@
 package ai.eval;
 
+import game.core.BitBoard;
 import game.core.Board;
+import game.core.SearchBoard;
 
 @FunctionalInterface
 public interface Evaluator {
     double evaluate(Board board);
+
+    /** Packed 4x4 board (see BitBoard). Default converts; override for a native path. */
+    default double evaluate(long board) {
+        return evaluate(BitBoard.toBoard(board));
+    }
+
+    /**
+     * Scores packed boards[0..count) into out[0..count). Default scores them one
+     * at a time; override to work on the whole batch at once.
+     */
+    default void evaluateBatch(long[] boards, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = evaluate(boards[i]);
+        }
+    }
+
+    /** Top of a search stack (see SearchBoard). Default copies; override for a native path. */
+    default double evaluate(SearchBoard board) {
+        return evaluate(board.toBoard());
+    }
+
+    /**
+     * Scores the children of a chance node: the board with a tile of the given
+     * exponent on each empty cell of the mask, in ascending cell order, into
+     * out[0..bitCount(empties)). Default builds the child boards and scores
+     * them with {@link #evaluateBatch}; override to score the children as small
+     * changes to the parent.
+     */
+    default void evaluateSpawns(long board, long empties, int exponent, double[] out) {
+        int count = Long.bitCount(empties);
+        long[] children = count <= BatchScratch.MAX_BATCH ? BatchScratch.get().children : new long[count];
+        int k = 0;
+        for (long m = empties; m != 0; m &= m - 1) {
+            children[k++] = BitBoard.place(board, Long.numberOfTrailingZeros(m), exponent);
+        }
+        evaluateBatch(children, k, out);
+    }
+
+    /** Search-stack counterpart of {@link #evaluateSpawns(long, long, int, double[])}. */
+    default void evaluateSpawns(SearchBoard board, long empties, int exponent, double[] out) {
+        int k = 0;
+        for (long m = empties; m != 0; m &= m - 1) {
+            board.pushTile(Long.numberOfTrailingZeros(m), exponent);
+            out[k++] = evaluate(board);
+            board.pop();
+        }
+    }
+
+    /**
+     * True if the score is invariant under rotating or reflecting the board.
+     * Search may then share cache entries between symmetric positions.
+     */
+    default boolean isSymmetric() {
+        return false;
+    }
 }
@@ -0,0 +1,309 @@
+package ai.eval;
+
+import game.core.BitBoard;
+import game.core.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * N-tuple network for packed 4x4 boards (see BitBoard).
+ *
+ * Each tuple is a short list of cells; the exponents on those cells, 4 bits
+ * each, index a table of float weights. A board scores the sum over every
+ * tuple and every one of the 8 rotations/reflections of the board, so the
+ * score is symmetric and each table is shared by all orientations. The sum
+ * always starts from the board's canonical form (see BitBoard#canonical), so
+ * symmetric boards score the same down to the last bit of the double and
+ * canonical cache keys return what a search without them would compute.
+ *
+ * Weights files are memory-mapped read-only, so JVMs on the same host share
+ * the pages through the OS cache. Building an evaluator reads every weight
+ * once, for the score bounds (see BoundedEvaluator).
+ *
+ * File format (little-endian):
+ * <pre>
+ *   int magic ('NTUP'), int version (1), int tupleCount
+ *   per tuple: int length, then length cell indices (r * 4 + c)
+ *   per tuple, in order: 16^length floats
+ * </pre>
+ */
+public final class NTupleEvaluator implements BoundedEvaluator {
+
+    public static final int MAGIC = 0x4E545550; // "NTUP"
+    public static final int VERSION = 1;
+
+    /** Longest supported tuple: 16^6 floats = 64 MB per table. */
+    public static final int MAX_TUPLE_LENGTH = 6;
+
+    /** Two straight 6-cell tuples and two 2x3 rectangles; 256 MB of weights. */
+    public static final int[][] DEFAULT_TUPLES = {
+            {0, 1, 2, 3, 4, 5},
+            {4, 5, 6, 7, 8, 9},
+            {0, 1, 2, 4, 5, 6},
+            {4, 5, 6, 8, 9, 10},
+    };
+
+    private final int[][] tuples;
+    private final FloatBuffer[] weights;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * @param tuples  cell indices per tuple
+     * @param weights one table of 16^length floats per tuple (heap or mapped)
+     */
+    public NTupleEvaluator(int[][] tuples, FloatBuffer[] weights) {
+        validateTuples(tuples);
+        if (weights.length != tuples.length) {
+            throw new IllegalArgumentException("Expected " + tuples.length + " weight tables, got " + weights.length);
+        }
+        for (int t = 0; t < tuples.length; t++) {
+            if (weights[t].capacity() != tableSize(tuples[t].length)) {
+                throw new IllegalArgumentException("Weight table " + t + " must hold " + tableSize(tuples[t].length) + " floats");
+            }
+        }
+        this.tuples = deepCopy(tuples);
+        this.weights = weights.clone();
+
+        // every orientation reads one weight per table
+        double lo = 0.0;
+        double hi = 0.0;
+        for (FloatBuffer table : this.weights) {
+            lo += extreme(table, false);
+            hi += extreme(table, true);
+        }
+        this.lowerBound = 8 * lo;
+        this.upperBound = 8 * hi;
+    }
+
+    /** Memory-maps a weights file (see class doc for the format). */
+    public static NTupleEvaluator load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(ch.size(), 12))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (head.remaining() < 12 || head.getInt() != MAGIC) {
+                throw new IOException("Not an n-tuple weights file: " + file);
+            }
+            int version = head.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported weights version " + version + " in " + file);
+            }
+            int count = head.getInt();
+            if (count <= 0 || count > 1024) {
+                throw new IOException("Bad tuple count " + count + " in " + file);
+            }
+
+            long offset = 12;
+            int[][] tuples = new int[count][];
+            for (int t = 0; t < count; t++) {
+                ByteBuffer len = ch.map(FileChannel.MapMode.READ_ONLY, offset, 4).order(ByteOrder.LITTLE_ENDIAN);
+                int length = len.getInt();
+                if (length <= 0 || length > MAX_TUPLE_LENGTH) {
+                    throw new IOException("Bad tuple length " + length + " in " + file);
+                }
+                ByteBuffer cells = ch.map(FileChannel.MapMode.READ_ONLY, offset + 4, 4L * length)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                tuples[t] = new int[length];
+                for (int j = 0; j < length; j++) {
+                    tuples[t][j] = cells.getInt();
+                }
+                offset += 4L + 4L * length;
+            }
+
+            long expected = offset;
+            for (int[] tuple : tuples) expected += 4L * tableSize(tuple.length);
+            if (ch.size() != expected) {
+                throw new IOException("Weights file " + file + " has " + ch.size() + " bytes, expected " + expected);
+            }
+
+            FloatBuffer[] weights = new FloatBuffer[count];
+            for (int t = 0; t < count; t++) {
+                long bytes = 4L * tableSize(tuples[t].length);
+                weights[t] = ch.map(FileChannel.MapMode.READ_ONLY, offset, bytes)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asFloatBuffer();
+                offset += bytes;
+            }
+
+            try {
+                return new NTupleEvaluator(tuples, weights);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Bad tuple in " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes weights in the file format, via a temporary file that is moved
+     * into place, so readers never map a half-written file.
+     */
+    public static void save(Path file, int[][] tuples, float[][] weights) throws IOException {
+        validateTuples(tuples);
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            int headerInts = 3;
+            for (int[] tuple : tuples) headerInts += 1 + tuple.length;
+            ByteBuffer header = ByteBuffer.allocate(4 * headerInts).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(tuples.length);
+            for (int[] tuple : tuples) {
+                header.putInt(tuple.length);
+                for (int cell : tuple) header.putInt(cell);
+            }
+            writeFully(ch, header.flip());
+
+            ByteBuffer chunk = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (int t = 0; t < tuples.length; t++) {
+                float[] table = weights[t];
+                if (table.length != tableSize(tuples[t].length)) {
+                    throw new IllegalArgumentException("Weight table " + t + " must hold " + tableSize(tuples[t].length) + " floats");
+                }
+                for (int i = 0; i < table.length; ) {
+                    chunk.clear();
+                    FloatBuffer floats = chunk.asFloatBuffer();
+                    int n = Math.min(floats.capacity(), table.length - i);
+                    floats.put(table, i, n);
+                    chunk.limit(4 * n);
+                    writeFully(ch, chunk);
+                    i += n;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int tupleCount() {
+        return tuples.length;
+    }
+
+    public int[] tuple(int t) {
+        return tuples[t].clone();
+    }
+
+    /** Heap copy of one tuple's weight table (e.g. to resume training from a file). */
+    public float[] copyTable(int t) {
+        float[] out = new float[weights[t].capacity()];
+        weights[t].get(0, out);
+        return out;
+    }
+
+    @Override
+    public double evaluate(Board board) {
+        if (board.getDimension() != BitBoard.SIZE) {
+            throw new IllegalArgumentException("NTupleEvaluator needs a 4x4 board, got " + board.getDimension());
+        }
+        long bits = 0L;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            // tiles past 2^15 share the last table slot
+            int e = Math.min(board.exponentAt(i), BitBoard.MAX_EXPONENT);
+            bits |= (long) e << (4 * i);
+        }
+        return evaluate(bits);
+    }
+
+    @Override
+    public double evaluate(long board) {
+        // the same orientation order for every symmetric board: floating-point sums depend on order
+        board = BitBoard.canonical(board);
+        long h = BitBoard.flipHorizontal(board);
+        long v = BitBoard.flipVertical(board);
+        long hv = BitBoard.flipVertical(h);
+
+        return sum(board) + sum(h) + sum(v) + sum(hv)
+                + sum(BitBoard.transpose(board)) + sum(BitBoard.transpose(h))
+                + sum(BitBoard.transpose(v)) + sum(BitBoard.transpose(hv));
+    }
+
+    @Override
+    public double lowerBound() {
+        return lowerBound;
+    }
+
+    @Override
+    public double upperBound() {
+        return upperBound;
+    }
+
+    /** The global bound: n-tuple scores give no cheaper per-position one. */
+    @Override
+    public double upperBound(long board, int spawns) {
+        return upperBound;
+    }
+
+    private static float extreme(FloatBuffer table, boolean max) {
+        float m = table.get(0);
+        for (int i = 1; i < table.capacity(); i++) {
+            float w = table.get(i);
+            m = max ? Math.max(m, w) : Math.min(m, w);
+        }
+        return m;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return true;
+    }
+
+    // one orientation, every tuple
+    private double sum(long board) {
+        double s = 0.0;
+        for (int t = 0; t < tuples.length; t++) {
+            s += weights[t].get(index(board, tuples[t]));
+        }
+        return s;
+    }
+
+    /** Table index of a tuple on a packed board: the cells' exponents, first cell lowest. */
+    public static int index(long board, int[] cells) {
+        int idx = 0;
+        for (int j = 0; j < cells.length; j++) {
+            idx |= BitBoard.exponent(board, cells[j]) << (4 * j);
+        }
+        return idx;
+    }
+
+    public static int tableSize(int tupleLength) {
+        return 1 << (4 * tupleLength);
+    }
+
+    private static void validateTuples(int[][] tuples) {
+        if (tuples.length == 0) throw new IllegalArgumentException("At least one tuple is required");
+        for (int[] tuple : tuples) {
+            if (tuple.length == 0 || tuple.length > MAX_TUPLE_LENGTH) {
+                throw new IllegalArgumentException("Tuple length must be 1.." + MAX_TUPLE_LENGTH + ", got " + tuple.length);
+            }
+            for (int cell : tuple) {
+                if (cell < 0 || cell >= BitBoard.CELLS) {
+                    throw new IllegalArgumentException("Tuple cell out of range: " + cell);
+                }
+            }
+        }
+    }
+
+    private static int[][] deepCopy(int[][] a) {
+        int[][] out = new int[a.length][];
+        for (int i = 0; i < a.length; i++) out[i] = a[i].clone();
+        return out;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+}
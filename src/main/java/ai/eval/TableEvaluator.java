@@ -0,0 +1,179 @@
+package ai.eval;
+
+import game.core.BitBoard;
+import game.core.Board;
+import game.core.SearchBoard;
+
+import static ai.eval.ClassicEvaluator.LOWER_BOUND;
+import static ai.eval.ClassicEvaluator.UPPER_BOUND;
+import static ai.eval.ClassicEvaluator.W_EMPTY;
+import static ai.eval.ClassicEvaluator.W_MAX_IN_CORNER;
+import static ai.eval.ClassicEvaluator.W_MAX_TILE;
+import static ai.eval.ClassicEvaluator.W_MONOTONICITY;
+import static ai.eval.ClassicEvaluator.W_SMOOTHNESS;
+
+/**
+ * Table-driven {@link ClassicEvaluator} for packed 4x4 boards (see BitBoard).
+ *
+ * Every per-line term is precomputed for all 65536 packed rows, so a whole
+ * evaluation is 4 row lookups, 4 column lookups (rows of the transpose) and a
+ * corner check. All terms are integers, so scores match ClassicEvaluator
+ * exactly, whatever order they are summed in. Other sizes, and tiles too large
+ * to pack, go to ClassicEvaluator.
+ */
+public final class TableEvaluator implements BoundedEvaluator {
+
+    private static final int ROWS = 1 << 16;
+
+    // empties + monotonicity + smoothness within the row
+    private static final double[] ROW_SCORE = new double[ROWS];
+    // monotonicity + smoothness within the column (empties are counted by rows)
+    private static final double[] COL_SCORE = new double[ROWS];
+    // largest exponent in the row, and the column where it first appears
+    private static final byte[] ROW_MAX = new byte[ROWS];
+    private static final byte[] ROW_MAX_AT = new byte[ROWS];
+
+    static {
+        for (int row = 0; row < ROWS; row++) {
+            int[] e = new int[BitBoard.SIZE];
+            int empty = 0;
+            int max = 0;
+            int maxAt = 0;
+            for (int c = 0; c < BitBoard.SIZE; c++) {
+                e[c] = (row >>> (4 * c)) & 0xF;
+                if (e[c] == 0) empty++;
+                if (e[c] > max) {
+                    max = e[c];
+                    maxAt = c;
+                }
+            }
+
+            double line = W_MONOTONICITY * monotonicity(e) + W_SMOOTHNESS * smoothness(e);
+            ROW_SCORE[row] = W_EMPTY * empty + line;
+            COL_SCORE[row] = line;
+            ROW_MAX[row] = (byte) max;
+            ROW_MAX_AT[row] = (byte) maxAt;
+        }
+    }
+
+    private final ClassicEvaluator fallback = new ClassicEvaluator();
+
+    @Override
+    public double lowerBound() {
+        return LOWER_BOUND;
+    }
+
+    @Override
+    public double upperBound() {
+        return UPPER_BOUND;
+    }
+
+    @Override
+    public double upperBound(long board, int spawns) {
+        return ClassicEvaluator.upperBoundAfter(board, spawns);
+    }
+
+    @Override
+    public double evaluate(Board board) {
+        if (!BitBoard.supports(board)) return fallback.evaluate(board);
+        return evaluate(BitBoard.pack(board));
+    }
+
+    @Override
+    public double evaluate(SearchBoard board) {
+        if (board.getDimension() != BitBoard.SIZE || board.getMaxExponent() > BitBoard.MAX_EXPONENT) {
+            return fallback.evaluate(board);
+        }
+        byte[] exps = board.current();
+        long bits = 0L;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            bits |= (long) exps[i] << (4 * i);
+        }
+        return evaluate(bits);
+    }
+
+    @Override
+    public double evaluate(long board) {
+        long transposed = BitBoard.transpose(board);
+
+        double score = 0.0;
+        for (int r = 0; r < BitBoard.SIZE; r++) {
+            score += ROW_SCORE[line(board, r)] + COL_SCORE[line(transposed, r)];
+        }
+        return score + maxTileTerms(board);
+    }
+
+    /**
+     * Each child differs from the parent in one row and one column, so its
+     * score is the parent's line sum with those two lines swapped out, plus the
+     * max-tile terms (4 row lookups).
+     */
+    @Override
+    public void evaluateSpawns(long board, long empties, int exponent, double[] out) {
+        long transposed = BitBoard.transpose(board);
+
+        double lines = 0.0;
+        for (int r = 0; r < BitBoard.SIZE; r++) {
+            lines += ROW_SCORE[line(board, r)] + COL_SCORE[line(transposed, r)];
+        }
+
+        int k = 0;
+        for (long m = empties; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            int r = cell >>> 2;
+            int c = cell & 3;
+
+            int row = line(board, r);
+            int col = line(transposed, c);
+            double score = lines
+                    - ROW_SCORE[row] + ROW_SCORE[row | exponent << (4 * c)]
+                    - COL_SCORE[col] + COL_SCORE[col | exponent << (4 * r)];
+
+            out[k++] = score + maxTileTerms(board | (long) exponent << (4 * cell));
+        }
+    }
+
+    // max tile + max-in-corner, with the first max in row-major order like ClassicEvaluator
+    private static double maxTileTerms(long board) {
+        int maxExp = 0;
+        int maxRow = 0;
+        for (int r = 0; r < BitBoard.SIZE; r++) {
+            int max = ROW_MAX[line(board, r)];
+            if (max > maxExp) {
+                maxExp = max;
+                maxRow = r;
+            }
+        }
+
+        int maxCol = ROW_MAX_AT[line(board, maxRow)];
+        boolean maxInCorner = (maxRow == 0 || maxRow == BitBoard.SIZE - 1)
+                && (maxCol == 0 || maxCol == BitBoard.SIZE - 1);
+
+        int maxTile = maxExp == 0 ? 0 : 1 << maxExp;
+        return W_MAX_TILE * maxTile + W_MAX_IN_CORNER * (maxInCorner ? 1.0 : 0.0);
+    }
+
+    private static int line(long board, int r) {
+        return (int) (board >>> (16 * r)) & 0xFFFF;
+    }
+
+    // Same line terms as ClassicEvaluator, on one row or column.
+
+    private static double monotonicity(int[] e) {
+        double inc = 0.0;
+        double dec = 0.0;
+        for (int i = 0; i + 1 < e.length; i++) {
+            if (e[i] > e[i + 1]) inc += (e[i] - e[i + 1]);
+            else dec += (e[i + 1] - e[i]);
+        }
+        return -Math.min(inc, dec);
+    }
+
+    private static double smoothness(int[] e) {
+        double s = 0.0;
+        for (int i = 0; i + 1 < e.length; i++) {
+            if (e[i] != 0 && e[i + 1] != 0) s -= Math.abs(e[i] - e[i + 1]);
+        }
+        return s;
+    }
+}
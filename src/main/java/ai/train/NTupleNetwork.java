@@ -0,0 +1,115 @@
+package ai.train;
+
+import ai.eval.NTupleEvaluator;
+import game.core.BitBoard;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+
+/**
+ * Trainable n-tuple weights on the heap, scored exactly like
+ * {@link NTupleEvaluator} (every tuple over the 8 symmetries of the board,
+ * summed from its canonical form).
+ *
+ * Updates are plain, unsynchronized float writes: trainer threads share one
+ * network and occasionally lose an update to a race (Hogwild-style), which
+ * costs far less than locking every table entry.
+ */
+public final class NTupleNetwork {
+
+    private final int[][] tuples;
+    private final float[][] weights;
+
+    /** Zero weights for the given tuples. */
+    public NTupleNetwork(int[][] tuples) {
+        this.tuples = new int[tuples.length][];
+        this.weights = new float[tuples.length][];
+        for (int t = 0; t < tuples.length; t++) {
+            this.tuples[t] = tuples[t].clone();
+            this.weights[t] = new float[NTupleEvaluator.tableSize(tuples[t].length)];
+        }
+    }
+
+    private NTupleNetwork(int[][] tuples, float[][] weights) {
+        this.tuples = tuples;
+        this.weights = weights;
+    }
+
+    /** Heap copy of a weights file, to continue training it. */
+    public static NTupleNetwork load(Path file) throws IOException {
+        NTupleEvaluator eval = NTupleEvaluator.load(file);
+        int[][] tuples = new int[eval.tupleCount()][];
+        float[][] weights = new float[tuples.length][];
+        for (int t = 0; t < tuples.length; t++) {
+            tuples[t] = eval.tuple(t);
+            weights[t] = eval.copyTable(t);
+        }
+        return new NTupleNetwork(tuples, weights);
+    }
+
+    /**
+     * Writes the current weights in the {@link NTupleEvaluator} file format.
+     * Safe to call while other threads train: the snapshot may mix old and new
+     * values of entries updated meanwhile.
+     */
+    public void save(Path file) throws IOException {
+        NTupleEvaluator.save(file, tuples, weights);
+    }
+
+    /** Evaluator over the live weights (no copy). */
+    public NTupleEvaluator evaluator() {
+        FloatBuffer[] buffers = new FloatBuffer[weights.length];
+        for (int t = 0; t < weights.length; t++) buffers[t] = FloatBuffer.wrap(weights[t]);
+        return new NTupleEvaluator(tuples, buffers);
+    }
+
+    /** Number of weights read per evaluation: tuples x 8 symmetries. */
+    public int featureCount() {
+        return tuples.length * 8;
+    }
+
+    /** Equal to the evaluator's score over the same weights, bit for bit, so TD targets match what search sees. */
+    public double value(long board) {
+        // canonical form first, like NTupleEvaluator#evaluate(long): floating-point sums depend on order
+        board = BitBoard.canonical(board);
+        long h = BitBoard.flipHorizontal(board);
+        long v = BitBoard.flipVertical(board);
+        long hv = BitBoard.flipVertical(h);
+
+        return sum(board) + sum(h) + sum(v) + sum(hv)
+                + sum(BitBoard.transpose(board)) + sum(BitBoard.transpose(h))
+                + sum(BitBoard.transpose(v)) + sum(BitBoard.transpose(hv));
+    }
+
+    /** Adds delta to every weight the board reads (featureCount() entries). */
+    public void update(long board, float delta) {
+        long h = BitBoard.flipHorizontal(board);
+        long v = BitBoard.flipVertical(board);
+        long hv = BitBoard.flipVertical(h);
+
+        add(board, delta);
+        add(h, delta);
+        add(v, delta);
+        add(hv, delta);
+        add(BitBoard.transpose(board), delta);
+        add(BitBoard.transpose(h), delta);
+        add(BitBoard.transpose(v), delta);
+        add(BitBoard.transpose(hv), delta);
+    }
+
+    // one orientation, every tuple
+    private double sum(long board) {
+        double s = 0.0;
+        for (int t = 0; t < tuples.length; t++) {
+            s += weights[t][NTupleEvaluator.index(board, tuples[t])];
+        }
+        return s;
+    }
+
+    private void add(long board, float delta) {
+        for (int t = 0; t < tuples.length; t++) {
+            weights[t][NTupleEvaluator.index(board, tuples[t])] += delta;
+        }
+    }
+}
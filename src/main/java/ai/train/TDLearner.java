@@ -0,0 +1,89 @@
+package ai.train;
+
+import ai.Player;
+import game.core.BitBoard;
+import game.core.Board;
+import game.core.Move;
+import game.rules.ClassicRules2048;
+
+/**
+ * Greedy self-play player that learns afterstate values by TD(0) as it goes.
+ *
+ * Each move picks the highest reward + V(afterstate), then pulls the value of
+ * the previous afterstate toward that total. Call {@link #endGame()} once the
+ * session is over: it pulls the last afterstate toward 0 and readies the
+ * learner for the next game.
+ *
+ * One learner per thread; several learners may share one network.
+ */
+public final class TDLearner implements Player {
+
+    private final NTupleNetwork net;
+    private final ClassicRules2048 rules;
+    private final float featureRate;
+
+    private final long[] afterstates = new long[4];
+
+    private long lastAfterstate;
+    private boolean hasLast;
+    private long updates;
+
+    /**
+     * @param learningRate step size for the whole value; each of the
+     *                     network's features moves by its share of it
+     */
+    public TDLearner(NTupleNetwork net, ClassicRules2048 rules, double learningRate) {
+        if (!(learningRate > 0.0)) throw new IllegalArgumentException("learningRate must be > 0");
+        this.net = net;
+        this.rules = rules;
+        this.featureRate = (float) (learningRate / net.featureCount());
+    }
+
+    @Override
+    public Move chooseMove(Board board) {
+        if (!BitBoard.supports(board)) {
+            // a 2^15 tile no longer packs; finish the game without learning
+            hasLast = false;
+            return rules.getLegalMoves(board).iterator().next();
+        }
+
+        long state = BitBoard.pack(board);
+        int mask = rules.afterstates(state, afterstates);
+
+        Move best = null;
+        long bestAfter = 0L;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Move move : Move.values()) {
+            if ((mask & move.bit()) == 0) continue;
+            long after = afterstates[move.ordinal()];
+            double value = rules.moveScore(state, move) + net.value(after);
+            if (value > bestValue) {
+                bestValue = value;
+                bestAfter = after;
+                best = move;
+            }
+        }
+
+        if (hasLast) learn(lastAfterstate, bestValue);
+        lastAfterstate = bestAfter;
+        hasLast = true;
+        return best;
+    }
+
+    /** Terminal update for the game just played; call after every session. */
+    public void endGame() {
+        if (hasLast) learn(lastAfterstate, 0.0);
+        hasLast = false;
+    }
+
+    /** TD updates applied so far. */
+    public long updates() {
+        return updates;
+    }
+
+    private void learn(long afterstate, double target) {
+        double error = target - net.value(afterstate);
+        net.update(afterstate, (float) (featureRate * error));
+        updates++;
+    }
+}
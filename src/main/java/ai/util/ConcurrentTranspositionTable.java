@@ -0,0 +1,222 @@
+package ai.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free {@link SearchTable} that any number of threads can read and write
+ * at once, so parallel searches (or concurrent games) share cached results.
+ *
+ * Entries are XOR-verified ("lockless hashing"): each is three longs
+ * [check, value, meta] with check = key ^ value ^ meta, written with plain
+ * stores. A reader that sees a half-written entry (fields from two different
+ * stores) gets a check mismatch and treats it as a miss, so no lock is needed
+ * and a hit always returns a value that was stored for that exact node.
+ *
+ * Buckets are a stride of 8 longs (64 bytes): 2 entries plus 2 unused longs.
+ * A long[] gives no control over alignment (the array header shifts element
+ * 0), so a bucket usually spans two cache lines rather than one; a probe
+ * still touches at most two lines, and neighbouring buckets never share an
+ * entry. Replacement matches {@link TranspositionTable}
+ * (stale generations first, then the previous one, then fewest plies), except
+ * that hits do not refresh an entry's age: rewriting meta would invalidate its
+ * check. Lookups are always exact.
+ *
+ * Counters are LongAdders so that counting does not become the contention;
+ * {@link #tornReads()} counts entries rejected by the check.
+ */
+public final class ConcurrentTranspositionTable implements SearchTable {
+
+    public static final int BUCKET = 2;
+
+    private static final int ENTRY_LONGS = 3;
+    private static final int BUCKET_LONGS = 8;
+
+    /** Bytes per entry, counting the bucket padding. */
+    public static final int ENTRY_BYTES = BUCKET_LONGS * Long.BYTES / BUCKET;
+
+    // meta: key fingerprint (32) | generation (16) | occupied (1) | unused (5) | node type (2) | plies left (8)
+    private static final long OCCUPIED = 1L << 15;
+    private static final long NODE_MASK = 0x3FF;
+
+    private final long[] data;
+    private final long buckets;
+
+    private volatile int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder carriedHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder replacements = new LongAdder();
+    private final LongAdder tornReads = new LongAdder();
+
+    public ConcurrentTranspositionTable(int entries) {
+        if (entries < BUCKET) throw new IllegalArgumentException("entries must be >= " + BUCKET + ", got " + entries);
+        long bucketCount = entries / BUCKET;
+        if (bucketCount * BUCKET_LONGS > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many entries: " + entries);
+        }
+        this.data = new long[(int) (bucketCount * BUCKET_LONGS)];
+        this.buckets = bucketCount;
+    }
+
+    /** As many entries as fit in the given number of megabytes. */
+    public static ConcurrentTranspositionTable ofMegabytes(int megabytes) {
+        if (megabytes <= 0) throw new IllegalArgumentException("megabytes must be > 0, got " + megabytes);
+        long entries = ((long) megabytes << 20) / ENTRY_BYTES;
+        long maxEntries = (Integer.MAX_VALUE - 8) / BUCKET_LONGS * (long) BUCKET;
+        return new ConcurrentTranspositionTable((int) Math.min(entries, maxEntries));
+    }
+
+    @Override
+    public int capacity() {
+        return (int) (buckets * BUCKET);
+    }
+
+    @Override
+    public void newSearch() {
+        generation = (generation + 1) & 0xFFFF;
+    }
+
+    @Override
+    public double get(long key, int pliesLeft, int nodeType) {
+        long node = node(pliesLeft, nodeType);
+        long fingerprint = fingerprint(key);
+        int start = bucketStart(key, node);
+
+        for (int i = start; i < start + BUCKET * ENTRY_LONGS; i += ENTRY_LONGS) {
+            long meta = data[i + 2];
+            if (meta == 0 || (meta & NODE_MASK) != node || (meta & 0xFFFFFFFF00000000L) != fingerprint) continue;
+
+            long value = data[i + 1];
+            if ((data[i] ^ value ^ meta) != key) {
+                // fingerprint and node agree but the fields come from different stores
+                tornReads.increment();
+                continue;
+            }
+            hits.increment();
+            if ((int) (meta >>> 16 & 0xFFFF) != generation) carriedHits.increment();
+            return Double.longBitsToDouble(value);
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    @Override
+    public void put(long key, int pliesLeft, int nodeType, double value) {
+        long node = node(pliesLeft, nodeType);
+        long fingerprint = fingerprint(key);
+        int start = bucketStart(key, node);
+        int gen = generation;
+
+        int target = -1;
+        int targetPriority = Integer.MAX_VALUE;
+        for (int i = start; i < start + BUCKET * ENTRY_LONGS; i += ENTRY_LONGS) {
+            long meta = data[i + 2];
+            if (meta == 0) {
+                if (targetPriority > -1) {
+                    target = i;
+                    targetPriority = -1; // empty slots beat any eviction
+                }
+                continue;
+            }
+            if ((meta & NODE_MASK) == node && (meta & 0xFFFFFFFF00000000L) == fingerprint) {
+                // same node (or a torn copy of it): overwrite in place
+                target = i;
+                targetPriority = -2;
+                break;
+            }
+            int age = (gen - (int) (meta >>> 16 & 0xFFFF)) & 0xFFFF;
+            int tier = age == 0 ? 2 : age == 1 ? 1 : 0;
+            int priority = tier * (MAX_PLIES + 1) + (int) (meta & MAX_PLIES);
+            if (priority < targetPriority) {
+                target = i;
+                targetPriority = priority;
+            }
+        }
+
+        if (targetPriority != -2) {
+            if (data[start + 2] != 0) collisions.increment();
+            if (targetPriority >= 0) replacements.increment();
+        }
+
+        long bits = Double.doubleToRawLongBits(value);
+        long meta = fingerprint | (long) gen << 16 | OCCUPIED | node;
+        data[target + 2] = meta;
+        data[target + 1] = bits;
+        data[target] = key ^ bits ^ meta;
+    }
+
+    /** Not atomic with respect to concurrent stores; call between searches. */
+    @Override
+    public void clear() {
+        Arrays.fill(data, 0L);
+    }
+
+    /* =========================
+       Counters (summed over all threads)
+       ========================= */
+
+    @Override
+    public long hits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long carriedHits() {
+        return carriedHits.sum();
+    }
+
+    @Override
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long collisions() {
+        return collisions.sum();
+    }
+
+    @Override
+    public long replacements() {
+        return replacements.sum();
+    }
+
+    /** Lookups that found their node mid-update by another thread and treated it as a miss. */
+    public long tornReads() {
+        return tornReads.sum();
+    }
+
+    @Override
+    public void resetStats() {
+        hits.reset();
+        carriedHits.reset();
+        misses.reset();
+        collisions.reset();
+        replacements.reset();
+        tornReads.reset();
+    }
+
+    private static long node(int pliesLeft, int nodeType) {
+        if (pliesLeft < 0 || pliesLeft > MAX_PLIES) {
+            throw new IllegalArgumentException("pliesLeft must be 0.." + MAX_PLIES + ", got " + pliesLeft);
+        }
+        return (long) (nodeType & 3) << 8 | pliesLeft;
+    }
+
+    // high 32 bits of a second mix, independent of the bits that pick the bucket
+    private static long fingerprint(long key) {
+        long h = key * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 31;
+        return h & 0xFFFFFFFF00000000L;
+    }
+
+    private int bucketStart(long key, long node) {
+        long h = (key ^ node << 54) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        return (int) Math.multiplyHigh(h & Long.MAX_VALUE, buckets << 1) * BUCKET_LONGS;
+    }
+}
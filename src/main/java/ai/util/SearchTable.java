@@ -0,0 +1,43 @@
+package ai.util;
+
+/**
+ * Search cache keyed by (64-bit position key, plies left, node type), see
+ * {@link TranspositionTable} for the single-threaded table and
+ * {@link ConcurrentTranspositionTable} for one shared between threads.
+ *
+ * Node types are small caller-defined tags (0..3). Values are exact: a hit
+ * only returns what was stored for the same key, plies and type, unless a
+ * table is built to reuse deeper entries (see TranspositionTable).
+ */
+public interface SearchTable {
+
+    /** Largest pliesLeft an entry can record. */
+    int MAX_PLIES = 0xFF;
+
+    /** Stored value for the node, or NaN if it is not in the table. */
+    double get(long key, int pliesLeft, int nodeType);
+
+    void put(long key, int pliesLeft, int nodeType, double value);
+
+    /** Starts a new search generation: older entries become the first to be replaced. */
+    void newSearch();
+
+    void clear();
+
+    int capacity();
+
+    long hits();
+
+    /** Hits on entries stored or last used by an earlier search: work carried over between moves. */
+    long carriedHits();
+
+    long misses();
+
+    /** Stores whose home slot held another position. */
+    long collisions();
+
+    /** Stores that evicted another position. */
+    long replacements();
+
+    void resetStats();
+}
@@ -0,0 +1,228 @@
+package ai.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table on primitive arrays: no per-entry objects,
+ * no boxing, nothing for the GC to trace beyond three arrays.
+ *
+ * An entry is a 64-bit position key, the plies left below it, a small
+ * caller-defined node type (0..3, e.g. player/chance) and a double value.
+ * Lookups only hit on an exact (key, plies, type) match, unless the table
+ * reuses deeper entries: then it keeps one entry per (key, type), the deepest
+ * stored, and a lookup hits any entry with at least the plies asked for. A
+ * search that gets shallower from one move to the next (iterative deepening,
+ * adaptive depth) then starts from the previous move's results.
+ *
+ * Entries live in buckets of {@link #BUCKET} slots. When a bucket is full, a
+ * store evicts the cheapest entry to recompute: stale entries (two or more
+ * searches old, see {@link #newSearch()}) first, then the previous search's,
+ * which the next move is the most likely to reuse, and within an age the one
+ * with the fewest plies left.
+ */
+public final class TranspositionTable implements SearchTable {
+
+    public static final int BUCKET = 4;
+
+    /** Bytes per entry: key + value + meta. */
+    public static final int ENTRY_BYTES = Long.BYTES + Double.BYTES + Integer.BYTES;
+
+    // meta: generation (16) | occupied (1) | unused (5) | node type (2) | plies left (8); 0 = empty
+    private static final int OCCUPIED = 1 << 15;
+    private static final int NODE_MASK = 0x3FF; // node type + plies
+    private static final int NODE_TYPE = 0x300;
+
+    private final long[] keys;
+    private final double[] values;
+    private final int[] meta;
+    private final long buckets;
+    private final boolean reuseDeeper;
+
+    private int generation;
+
+    private long hits;
+    private long carriedHits;
+    private long misses;
+    private long collisions;
+    private long replacements;
+
+    public TranspositionTable(int entries) {
+        this(entries, false);
+    }
+
+    /** @param reuseDeeper let an entry searched deeper answer a lookup for fewer plies */
+    public TranspositionTable(int entries, boolean reuseDeeper) {
+        if (entries < BUCKET) throw new IllegalArgumentException("entries must be >= " + BUCKET + ", got " + entries);
+        int size = entries - entries % BUCKET;
+        this.keys = new long[size];
+        this.values = new double[size];
+        this.meta = new int[size];
+        this.buckets = size / BUCKET;
+        this.reuseDeeper = reuseDeeper;
+    }
+
+    /** As many entries as fit in the given number of megabytes. */
+    public static TranspositionTable ofMegabytes(int megabytes) {
+        return ofMegabytes(megabytes, false);
+    }
+
+    public static TranspositionTable ofMegabytes(int megabytes, boolean reuseDeeper) {
+        if (megabytes <= 0) throw new IllegalArgumentException("megabytes must be > 0, got " + megabytes);
+        long entries = ((long) megabytes << 20) / ENTRY_BYTES;
+        // Java arrays top out just below 2^31 elements
+        return new TranspositionTable((int) Math.min(entries, Integer.MAX_VALUE - 8), reuseDeeper);
+    }
+
+    public boolean reusesDeeper() {
+        return reuseDeeper;
+    }
+
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public void newSearch() {
+        generation = (generation + 1) & 0xFFFF;
+    }
+
+    @Override
+    public double get(long key, int pliesLeft, int nodeType) {
+        int node = node(pliesLeft, nodeType);
+        int start = bucketStart(key, node);
+        for (int i = start; i < start + BUCKET; i++) {
+            int m = meta[i];
+            if (m != 0 && matches(m, node) && keys[i] == key) {
+                if (m >>> 16 != generation) carriedHits++;
+                meta[i] = stamp(m & NODE_MASK); // still in use: refresh its age
+                hits++;
+                return values[i];
+            }
+        }
+        misses++;
+        return Double.NaN;
+    }
+
+    // same node, or with reuseDeeper the same type and at least the plies asked for
+    private boolean matches(int m, int node) {
+        if (!reuseDeeper) return (m & NODE_MASK) == node;
+        return (m & NODE_TYPE) == (node & NODE_TYPE) && (m & MAX_PLIES) >= (node & MAX_PLIES);
+    }
+
+    @Override
+    public void put(long key, int pliesLeft, int nodeType, double value) {
+        int node = node(pliesLeft, nodeType);
+        int start = bucketStart(key, node);
+
+        int target = -1;
+        int targetPriority = Integer.MAX_VALUE;
+        for (int i = start; i < start + BUCKET; i++) {
+            int m = meta[i];
+            if (m == 0) {
+                if (targetPriority > -1) {
+                    target = i;
+                    targetPriority = -1; // empty slots beat any eviction
+                }
+                continue;
+            }
+            if (sameNode(m, node) && keys[i] == key) {
+                // a deeper result for the position stays
+                if (reuseDeeper && (m & MAX_PLIES) > (node & MAX_PLIES)) return;
+                target = i;
+                targetPriority = -2;
+                break;
+            }
+            int priority = ageTier(m) * (MAX_PLIES + 1) + (m & MAX_PLIES);
+            if (priority < targetPriority) {
+                target = i;
+                targetPriority = priority;
+            }
+        }
+
+        if (targetPriority != -2) {
+            if (meta[start] != 0) collisions++;
+            if (targetPriority >= 0) replacements++;
+        }
+
+        keys[target] = key;
+        values[target] = value;
+        meta[target] = stamp(node);
+    }
+
+    // one entry per position (and type) when reusing deeper entries
+    private boolean sameNode(int m, int node) {
+        return reuseDeeper ? (m & NODE_TYPE) == (node & NODE_TYPE) : (m & NODE_MASK) == node;
+    }
+
+    // 2 = this search, 1 = the previous one, 0 = stale
+    private int ageTier(int m) {
+        int age = (generation - (m >>> 16)) & 0xFFFF;
+        return age == 0 ? 2 : age == 1 ? 1 : 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(meta, 0);
+    }
+
+    /* =========================
+       Counters
+       ========================= */
+
+    @Override
+    public long hits() {
+        return hits;
+    }
+
+    @Override
+    public long carriedHits() {
+        return carriedHits;
+    }
+
+    @Override
+    public long misses() {
+        return misses;
+    }
+
+    @Override
+    public long collisions() {
+        return collisions;
+    }
+
+    @Override
+    public long replacements() {
+        return replacements;
+    }
+
+    @Override
+    public void resetStats() {
+        hits = 0;
+        carriedHits = 0;
+        misses = 0;
+        collisions = 0;
+        replacements = 0;
+    }
+
+    private static int node(int pliesLeft, int nodeType) {
+        if (pliesLeft < 0 || pliesLeft > MAX_PLIES) {
+            throw new IllegalArgumentException("pliesLeft must be 0.." + MAX_PLIES + ", got " + pliesLeft);
+        }
+        return (nodeType & 3) << 8 | pliesLeft;
+    }
+
+    private int stamp(int node) {
+        return generation << 16 | OCCUPIED | node;
+    }
+
+    private int bucketStart(long key, int node) {
+        // every depth of a position shares a bucket when deeper entries answer shallower lookups
+        if (reuseDeeper) node &= NODE_TYPE;
+        long h = (key ^ (long) node << 54) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        // multiply-high maps the hash onto [0, buckets) without a power-of-two size
+        return (int) Math.multiplyHigh(h & Long.MAX_VALUE, buckets << 1) * BUCKET;
+    }
+}
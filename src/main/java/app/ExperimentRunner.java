@@ -1,6 +1,6 @@
 package app;
 
-import ai.ExpectimaxPlayer;
+import ai.SearchPlayer;
 import app.dto.*;
 import app.output.OutputSink;
 import game.runtime.GameConfig;
@@ -8,6 +8,7 @@ import game.runtime.GameSession;
 import game.runtime.SessionResult;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class ExperimentRunner {
@@ -39,6 +40,13 @@ public class ExperimentRunner {
         long totalChanceNodes = 0;
         long totalChanceOutcomes = 0;
         long totalSearchNanos = 0;
+        long totalCacheHits = 0;
+        long totalCacheCarriedHits = 0;
+        long totalCacheMisses = 0;
+        long totalCacheCollisions = 0;
+        long totalCacheReplacements = 0;
+        long totalPruned = 0;
+        long[] movesByDepth = new long[0];
 
         void add(SessionResult r) {
             n++;
@@ -61,12 +69,22 @@ public class ExperimentRunner {
             }
         }
 
-        void addSearchStats(ExpectimaxPlayer.SearchStats s) {
+        void addSearchStats(SearchPlayer.SearchStats s) {
             hasSearchStats = true;
             totalNodes += s.nodes();
             totalChanceNodes += s.chanceNodes();
             totalChanceOutcomes += s.chanceOutcomes();
             totalSearchNanos += s.searchNanos();
+            totalCacheHits += s.cacheHits();
+            totalCacheCarriedHits += s.cacheCarriedHits();
+            totalCacheMisses += s.cacheMisses();
+            totalCacheCollisions += s.cacheCollisions();
+            totalCacheReplacements += s.cacheReplacements();
+            totalPruned += s.pruned();
+
+            long[] moves = s.movesByDepth();
+            if (moves.length > movesByDepth.length) movesByDepth = Arrays.copyOf(movesByDepth, moves.length);
+            for (int d = 0; d < moves.length; d++) movesByDepth[d] += moves[d];
         }
 
         ExperimentResult toResult(String label, ExperimentSpec spec) {
@@ -84,6 +102,15 @@ public class ExperimentRunner {
             double totalCpuSec = cpuAvailableForAll ? (totalCpuNanos / 1_000_000_000.0) : 0.0;
             double avgCpuSec = cpuAvailableForAll ? (totalCpuSec / runs) : 0.0;
 
+            long cacheLookups = totalCacheHits + totalCacheMisses;
+            double cacheHitPct = cacheLookups > 0 ? 100.0 * totalCacheHits / cacheLookups : 0.0;
+            double cacheCarriedPct = cacheLookups > 0 ? 100.0 * totalCacheCarriedHits / cacheLookups : 0.0;
+
+            long movesSearched = 0;
+            for (long m : movesByDepth) movesSearched += m;
+            double nodesPerMove = movesSearched > 0 ? totalNodes / (double) movesSearched : 0.0;
+            double prunedPerMove = movesSearched > 0 ? totalPruned / (double) movesSearched : 0.0;
+
             double nodesPerSec = 0.0;
             double avgOutcomes = 0.0;
             if (hasSearchStats && totalSearchNanos > 0) {
@@ -115,7 +142,14 @@ public class ExperimentRunner {
 
                     hasSearchStats,
                     nodesPerSec,
-                    avgOutcomes
+                    nodesPerMove,
+                    prunedPerMove,
+                    avgOutcomes,
+                    cacheHitPct,
+                    cacheCarriedPct,
+                    totalCacheCollisions,
+                    totalCacheReplacements,
+                    movesByDepth.clone()
             );
         }
     }
@@ -132,13 +166,13 @@ public class ExperimentRunner {
         List<Acc> accs = new ArrayList<>(playerExperiments.size());
         for (int i = 0; i < playerExperiments.size(); i++) accs.add(new Acc());
 
-        // Warmup (discard results). Also reset per-game stats for expectimax players.
+        // Warmup (discard results). Also reset per-game stats for search players.
         for (int i = 0; i < warmup; i++) {
             long seed = baseSeed + i;
             for (ExperimentCase e : playerExperiments) {
-                if (e.player() instanceof ExpectimaxPlayer ep) ep.resetStats();
+                if (e.player() instanceof SearchPlayer sp) sp.resetStats();
                 new GameSession(config, seed).runGame(e.player());
-                if (e.player() instanceof ExpectimaxPlayer ep) ep.resetStats();
+                if (e.player() instanceof SearchPlayer sp) sp.resetStats();
             }
             System.out.printf("\rwarmup %d is complete", i + 1);
         }
@@ -153,15 +187,15 @@ public class ExperimentRunner {
             for (int j = 0; j < playerExperiments.size(); j++) {
                 ExperimentCase e = playerExperiments.get(j);
 
-                // measure expectimax search stats per game
-                if (e.player() instanceof ExpectimaxPlayer ep) ep.resetStats();
+                // measure search stats per game
+                if (e.player() instanceof SearchPlayer sp) sp.resetStats();
 
                 SessionResult r = new GameSession(config, seed).runGame(e.player());
                 accs.get(j).add(r);
 
-                if (e.player() instanceof ExpectimaxPlayer ep) {
-                    accs.get(j).addSearchStats(ep.getStats());
-                    ep.resetStats();
+                if (e.player() instanceof SearchPlayer sp) {
+                    accs.get(j).addSearchStats(sp.getStats());
+                    sp.resetStats();
                 }
             }
 
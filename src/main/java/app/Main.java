@@ -1,16 +1,32 @@
 package app;
 
+import ai.AdaptiveDepthPlayer;
+import ai.DepthPolicy;
 import ai.ExpectimaxPlayer;
+import ai.MctsPlayer;
 import ai.Player;
+import ai.ParallelExpectimaxPlayer;
+import ai.ProbabilityCutoffPlayer;
+import ai.RolloutPlayer;
 import ai.SamplingExpectimaxPlayer;
+import ai.StarExpectimaxPlayer;
+import ai.TimedExpectimaxPlayer;
+import ai.eval.BoundedEvaluator;
 import ai.eval.ClassicEvaluator;
 import ai.eval.Evaluator;
+import ai.eval.NTupleEvaluator;
+import ai.eval.TableEvaluator;
+import ai.train.NTupleNetwork;
 import app.dto.ExperimentCase;
 import app.dto.ExperimentSpec;
+import app.dto.PlayerOptions;
 import app.dto.RunPlan;
+import app.dto.TrainingPlan;
 import app.output.ConsoleSink;
+import app.output.ConsoleTrainingSink;
 import app.output.MarkdownFileSink;
 import app.output.OutputSink;
+import game.core.Board;
 import game.rules.ClassicRules2048;
 import game.rules.Rules;
 import game.runtime.GameConfig;
@@ -23,6 +39,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
 
@@ -44,12 +61,22 @@ public class Main {
     private static final int DEFAULT_CHECKPOINTS = 10;
     private static final double DEFAULT_WARMUP_FRACTION = 0.02;
 
+    private static final long DEFAULT_TRAIN_GAMES = 100_000L;
+    private static final double DEFAULT_LEARNING_RATE = 0.1;
+    private static final long DEFAULT_TRAIN_SEED = 42L;
+    private static final int DEFAULT_REPORT_SEC = 10;
+    private static final int DEFAULT_SAVE_SEC = 300;
+
     private static final int DEFAULT_GRID_SIZE = 4;
+    private static final String DEFAULT_EVAL = "table";
+    private static final String DEFAULT_ROLLOUT_POLICY = "random";
+    private static final String DEFAULT_TT_REUSE = "exact";
     private static final double DEFAULT_P2 = 0.9;
 
     public static void main(String[] args) {
 
         boolean playMode = DEFAULT_PLAY_MODE;
+        boolean trainMode = false;
         int startIdx = 0;
 
         if (args.length > 0) {
@@ -61,12 +88,17 @@ public class Main {
             } else if (first.equals("experiment") || first.equals("exp")) {
                 playMode = false;
                 startIdx = 1;
+            } else if (first.equals("train")) {
+                trainMode = true;
+                startIdx = 1;
             } else if (first.equals("--help") || first.equals("-h")) {
                 usageAndExit();
             }
         }
 
-        if (playMode) {
+        if (trainMode) {
+            runTraining(args, startIdx);
+        } else if (playMode) {
             runPlay(args, startIdx);
         } else {
             runExperiment(args, startIdx);
@@ -85,6 +117,22 @@ public class Main {
         String pace = DEFAULT_PACE;
         int delayMs = DEFAULT_DELAY_MS;
 
+        int gridSize = DEFAULT_GRID_SIZE;
+        String evalName = DEFAULT_EVAL;
+        String weights = null;
+        int ttMb = ExpectimaxPlayer.DEFAULT_TT_MB;
+        String ttReuse = DEFAULT_TT_REUSE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int splitPlies = ParallelExpectimaxPlayer.DEFAULT_SPLIT_PLIES;
+        long moveMs = 0;
+        double minProb = ProbabilityCutoffPlayer.DEFAULT_MIN_PROBABILITY;
+        String depthPolicy = AdaptiveDepthPlayer.DEFAULT_POLICY;
+        int rollouts = RolloutPlayer.DEFAULT_ROLLOUTS;
+        int horizon = RolloutPlayer.DEFAULT_HORIZON;
+        String rolloutPolicy = DEFAULT_ROLLOUT_POLICY;
+        int mctsIterations = MctsPlayer.DEFAULT_ITERATIONS;
+        int mctsNodes = MctsPlayer.DEFAULT_CAPACITY;
+
         for (int i = startIdx; i < args.length; i++) {
             String a = args[i];
 
@@ -92,14 +140,29 @@ public class Main {
                 case "--help", "-h" -> usageAndExit();
 
                 case "--ai" -> aiType = requireValue(args, ++i, "--ai").toLowerCase();
+                case "--eval" -> evalName = requireValue(args, ++i, "--eval").toLowerCase();
+                case "--weights" -> weights = requireValue(args, ++i, "--weights");
                 case "--depth" -> depth = parsePositiveInt(requireValue(args, ++i, "--depth"), "depth");
                 case "--cache" -> useCache = parseBoolean(requireValue(args, ++i, "--cache"), "cache");
+                case "--tt-mb" -> ttMb = parsePositiveInt(requireValue(args, ++i, "--tt-mb"), "tt-mb");
+                case "--tt-reuse" -> ttReuse = requireValue(args, ++i, "--tt-reuse").toLowerCase();
+                case "--threads" -> threads = parsePositiveInt(requireValue(args, ++i, "--threads"), "threads");
+                case "--split-plies" -> splitPlies = parsePositiveInt(requireValue(args, ++i, "--split-plies"), "split-plies");
+                case "--move-ms" -> moveMs = parsePositiveLong(requireValue(args, ++i, "--move-ms"), "move-ms");
+                case "--min-prob" -> minProb = parseProbability(requireValue(args, ++i, "--min-prob"), "min-prob");
+                case "--depth-policy" -> depthPolicy = requireValue(args, ++i, "--depth-policy");
+                case "--rollouts" -> rollouts = parsePositiveInt(requireValue(args, ++i, "--rollouts"), "rollouts");
+                case "--horizon" -> horizon = parseNonNegativeInt(requireValue(args, ++i, "--horizon"), "horizon");
+                case "--rollout-policy" -> rolloutPolicy = requireValue(args, ++i, "--rollout-policy").toLowerCase();
+                case "--mcts-iters" -> mctsIterations = parsePositiveInt(requireValue(args, ++i, "--mcts-iters"), "mcts-iters");
+                case "--mcts-nodes" -> mctsNodes = parsePositiveInt(requireValue(args, ++i, "--mcts-nodes"), "mcts-nodes");
 
                 case "--seed" -> seed = parseLong(requireValue(args, ++i, "--seed"), "seed");
                 case "--ignore4" -> ignore4Threshold = parseNonNegativeInt(requireValue(args, ++i, "--ignore4"), "ignore4");
 
                 case "--pace" -> pace = requireValue(args, ++i, "--pace").trim().toLowerCase();
                 case "--delay-ms" -> delayMs = parseNonNegativeInt(requireValue(args, ++i, "--delay-ms"), "delay-ms");
+                case "--size" -> gridSize = parseGridSize(requireValue(args, ++i, "--size"));
 
                 default -> throw new IllegalArgumentException("Unknown argument: " + a);
             }
@@ -109,17 +172,23 @@ public class Main {
             throw new IllegalArgumentException("--pace must be 'auto' or 'step'. Got: " + pace);
         }
 
-        int gridSize = DEFAULT_GRID_SIZE;
         double p2 = DEFAULT_P2;
 
         Rules rules = new ClassicRules2048();
         Spawner spawner = new ClassicSpawner2048(p2);
         GameConfig config = new GameConfig(gridSize, rules, spawner);
 
-        Player player = getPlayer(aiType, config, depth, useCache, ignore4Threshold);
+        PlayerOptions options = new PlayerOptions(ttMb, ttReuse, ignore4Threshold, minProb, depthPolicy, threads, splitPlies,
+                rollouts, horizon, rolloutPolicy, mctsIterations, mctsNodes, moveMs);
+        Player player = getPlayer(aiType, getEvaluator(evalName, weights, gridSize), config, depth, useCache, options,
+                null);
 
         GameSession session = new GameSession(config, seed);
-        session.runGameInteractive(player, pace.equals("step"), delayMs, depth);
+        try {
+            session.runGameInteractive(player, pace.equals("step"), delayMs, depth);
+        } finally {
+            closePlayer(player);
+        }
     }
 
     private static void runExperiment(String[] args, int startIdx) {
@@ -134,6 +203,21 @@ public class Main {
         int checkpoints = DEFAULT_CHECKPOINTS;
         double warmupFraction = DEFAULT_WARMUP_FRACTION;
         int ignore4Threshold = DEFAULT_IGNORE4_THRESHOLD;
+        int gridSize = DEFAULT_GRID_SIZE;
+        String evalArg = DEFAULT_EVAL;
+        String weights = null;
+        int ttMb = ExpectimaxPlayer.DEFAULT_TT_MB;
+        String ttReuse = DEFAULT_TT_REUSE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int splitPlies = ParallelExpectimaxPlayer.DEFAULT_SPLIT_PLIES;
+        long moveMs = 0;
+        double minProb = ProbabilityCutoffPlayer.DEFAULT_MIN_PROBABILITY;
+        String depthPolicy = AdaptiveDepthPlayer.DEFAULT_POLICY;
+        int rollouts = RolloutPlayer.DEFAULT_ROLLOUTS;
+        int horizon = RolloutPlayer.DEFAULT_HORIZON;
+        String rolloutPolicy = DEFAULT_ROLLOUT_POLICY;
+        int mctsIterations = MctsPlayer.DEFAULT_ITERATIONS;
+        int mctsNodes = MctsPlayer.DEFAULT_CAPACITY;
 
         for (int i = startIdx; i < args.length; i++) {
             String a = args[i];
@@ -142,8 +226,22 @@ public class Main {
                 case "--help", "-h" -> usageAndExit();
 
                 case "--ai" -> aiArg = requireValue(args, ++i, "--ai").toLowerCase();
+                case "--eval" -> evalArg = requireValue(args, ++i, "--eval").toLowerCase();
+                case "--weights" -> weights = requireValue(args, ++i, "--weights");
                 case "--depth" -> depthArg = requireValue(args, ++i, "--depth");
                 case "--cache" -> cacheArg = requireValue(args, ++i, "--cache").toLowerCase();
+                case "--tt-mb" -> ttMb = parsePositiveInt(requireValue(args, ++i, "--tt-mb"), "tt-mb");
+                case "--tt-reuse" -> ttReuse = requireValue(args, ++i, "--tt-reuse").toLowerCase();
+                case "--threads" -> threads = parsePositiveInt(requireValue(args, ++i, "--threads"), "threads");
+                case "--split-plies" -> splitPlies = parsePositiveInt(requireValue(args, ++i, "--split-plies"), "split-plies");
+                case "--move-ms" -> moveMs = parsePositiveLong(requireValue(args, ++i, "--move-ms"), "move-ms");
+                case "--min-prob" -> minProb = parseProbability(requireValue(args, ++i, "--min-prob"), "min-prob");
+                case "--depth-policy" -> depthPolicy = requireValue(args, ++i, "--depth-policy");
+                case "--rollouts" -> rollouts = parsePositiveInt(requireValue(args, ++i, "--rollouts"), "rollouts");
+                case "--horizon" -> horizon = parseNonNegativeInt(requireValue(args, ++i, "--horizon"), "horizon");
+                case "--rollout-policy" -> rolloutPolicy = requireValue(args, ++i, "--rollout-policy").toLowerCase();
+                case "--mcts-iters" -> mctsIterations = parsePositiveInt(requireValue(args, ++i, "--mcts-iters"), "mcts-iters");
+                case "--mcts-nodes" -> mctsNodes = parsePositiveInt(requireValue(args, ++i, "--mcts-nodes"), "mcts-nodes");
 
                 case "--runs" -> runs = parsePositiveInt(requireValue(args, ++i, "--runs"), "runs");
                 case "--seed" -> seed = parseLong(requireValue(args, ++i, "--seed"), "seed");
@@ -152,12 +250,12 @@ public class Main {
                 case "--warmup" -> warmupFraction = parseWarmup(requireValue(args, ++i, "--warmup"));
 
                 case "--ignore4" -> ignore4Threshold = parseNonNegativeInt(requireValue(args, ++i, "--ignore4"), "ignore4");
+                case "--size" -> gridSize = parseGridSize(requireValue(args, ++i, "--size"));
 
                 default -> throw new IllegalArgumentException("Unknown argument: " + a);
             }
         }
 
-        int gridSize = DEFAULT_GRID_SIZE;
         double p2 = DEFAULT_P2;
 
         Rules rules = new ClassicRules2048();
@@ -167,17 +265,25 @@ public class Main {
         List<String> ais = parseCsvStrings(aiArg);
         List<Integer> depths = parseCsvPositiveInts(depthArg, "depth");
         List<Boolean> caches = parseCsvBooleans(cacheArg, "cache");
+        List<String> evals = parseCsvStrings(evalArg);
+        boolean labelEval = evals.size() > 1 || !evals.contains(DEFAULT_EVAL);
 
+        PlayerOptions options = new PlayerOptions(ttMb, ttReuse, ignore4Threshold, minProb, depthPolicy, threads, splitPlies,
+                rollouts, horizon, rolloutPolicy, mctsIterations, mctsNodes, moveMs);
+        // cases run interleaved, so every player stays alive; pooled players share one pool
+        ForkJoinPool pool = new ForkJoinPool(threads);
         List<ExperimentCase> experiments = new ArrayList<>();
         for (String ai : ais) {
-            for (int d : depths) {
-                for (boolean c : caches) {
+            for (String ev : evals) {
+                for (int d : depths) {
+                    for (boolean c : caches) {
 
-                    Player player = getPlayer(ai, config, d, c, ignore4Threshold);
-                    ExperimentSpec spec = new ExperimentSpec(d, c);
+                        Player player = getPlayer(ai, getEvaluator(ev, weights, gridSize), config, d, c, options, pool);
+                        ExperimentSpec spec = new ExperimentSpec(d, c);
 
-                    String label = buildLabel(ai, d, c, ignore4Threshold);
-                    experiments.add(new ExperimentCase(label, spec, player));
+                        String label = buildLabel(ai, d, c, options) + (labelEval ? " eval=" + ev : "");
+                        experiments.add(new ExperimentCase(label, spec, player));
+                    }
                 }
             }
         }
@@ -191,40 +297,222 @@ public class Main {
         System.out.println("P(2-tile)    : " + p2);
         System.out.println("Experiments  : " + experiments.size());
         System.out.println("AI(s)        : " + ais);
+        System.out.println("Evaluator(s) : " + evals);
         System.out.println("Depth(s)     : " + depths);
         System.out.println("Cache mode(s): " + caches);
+        System.out.println("TT size      : " + ttMb + " MB per player");
+        if (!ttReuse.equals(DEFAULT_TT_REUSE)) System.out.println("TT reuse     : " + ttReuse);
         System.out.println("Ignore4 thr  : " + ignore4Threshold);
+        if (ais.contains("prob")) System.out.println("Min prob     : " + minProb);
+        if (ais.contains("adaptive")) System.out.println("Depth policy : " + depthPolicy);
+        if (ais.contains("rollout")) {
+            System.out.println("Rollouts     : " + rollouts + " per move, horizon " + (horizon == 0 ? "game end" : horizon)
+                    + ", " + rolloutPolicy + ", " + threads + " threads");
+        }
+        if (moveMs > 0) System.out.println("Move budget  : " + moveMs + " ms");
+        if (ais.contains("parallel") || ais.contains("rollout")) {
+            System.out.println("CPU time     : game thread only; pooled players search on " + threads
+                    + " other threads, compare wall time");
+        }
         System.out.println("=====================");
 
         RunPlan plan = new RunPlan(runs, seed, warmupFraction, checkpoints);
         ExperimentRunner runner = new ExperimentRunner(config);
-        String reportPath = buildMarkdownReportPath(aiArg, depthArg, cacheArg, runs, seed, warmupFraction, checkpoints);
+        String reportPath = buildMarkdownReportPath(aiArg, evalArg, depthArg, cacheArg, gridSize, runs, seed, warmupFraction, checkpoints);
 
         List<OutputSink> sinks = List.of(
                 new ConsoleSink(),
                 new MarkdownFileSink(reportPath)
         );
 
-        runner.runExperiment(experiments, plan, sinks);
+        try {
+            runner.runExperiment(experiments, plan, sinks);
+        } finally {
+            for (ExperimentCase e : experiments) closePlayer(e.player());
+            pool.shutdown();
+        }
     }
 
-    private static String buildLabel(String aiType, int depth, boolean useCache, int ignore4Threshold) {
-        String base = aiType + " d=" + depth + " cache=" + (useCache ? "on" : "off");
+    private static void closePlayer(Player player) {
+        if (player instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to close player", e);
+            }
+        }
+    }
+
+    private static void runTraining(String[] args, int startIdx) {
+
+        String weights = null;
+        long games = DEFAULT_TRAIN_GAMES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double learningRate = DEFAULT_LEARNING_RATE;
+        long seed = DEFAULT_TRAIN_SEED;
+        int reportSec = DEFAULT_REPORT_SEC;
+        int saveSec = DEFAULT_SAVE_SEC;
+
+        for (int i = startIdx; i < args.length; i++) {
+            String a = args[i];
+
+            switch (a) {
+                case "--help", "-h" -> usageAndExit();
+
+                case "--weights" -> weights = requireValue(args, ++i, "--weights");
+                case "--games" -> games = parsePositiveLong(requireValue(args, ++i, "--games"), "games");
+                case "--threads" -> threads = parsePositiveInt(requireValue(args, ++i, "--threads"), "threads");
+                case "--alpha" -> learningRate = parsePositiveDouble(requireValue(args, ++i, "--alpha"), "alpha");
+                case "--seed" -> seed = parseLong(requireValue(args, ++i, "--seed"), "seed");
+                case "--report-sec" -> reportSec = parsePositiveInt(requireValue(args, ++i, "--report-sec"), "report-sec");
+                case "--save-sec" -> saveSec = parseNonNegativeInt(requireValue(args, ++i, "--save-sec"), "save-sec");
+
+                default -> throw new IllegalArgumentException("Unknown argument: " + a);
+            }
+        }
+
+        if (weights == null) {
+            throw new IllegalArgumentException("train requires --weights <file> (created, or resumed if it exists)");
+        }
+
+        Path weightsFile = Path.of(weights);
+        boolean resume = Files.exists(weightsFile);
+        NTupleNetwork net;
+        try {
+            net = resume ? NTupleNetwork.load(weightsFile) : new NTupleNetwork(NTupleEvaluator.DEFAULT_TUPLES);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to load n-tuple weights: " + weights, e);
+        }
+
+        double p2 = DEFAULT_P2;
+
+        Rules rules = new ClassicRules2048();
+        Spawner spawner = new ClassicSpawner2048(p2);
+        GameConfig config = new GameConfig(DEFAULT_GRID_SIZE, rules, spawner);
+
+        System.out.println("=== Configuration ===");
+        System.out.println("Weights      : " + weightsFile + (resume ? " (resumed)" : " (new)"));
+        System.out.println("Games        : " + games);
+        System.out.println("Threads      : " + threads);
+        System.out.println("Alpha        : " + learningRate);
+        System.out.println("Seed         : " + seed);
+        System.out.println("Report every : " + reportSec + " s");
+        System.out.println("Save every   : " + (saveSec == 0 ? "end only" : saveSec + " s"));
+        System.out.println("P(2-tile)    : " + p2);
+        System.out.println("=====================");
+
+        TrainingPlan plan = new TrainingPlan(games, threads, learningRate, seed, reportSec, saveSec, weightsFile);
+        new TrainingRunner(config).train(net, plan, List.of(new ConsoleTrainingSink()));
+    }
+
+    private static String buildLabel(String aiType, int depth, boolean useCache, PlayerOptions options) {
+        String base = aiType + (options.timed() ? " d<=" + depth + " move-ms=" + options.moveMillis() : " d=" + depth)
+                + " cache=" + (useCache ? "on" : "off")
+                + (options.ttReuse().equals(DEFAULT_TT_REUSE) ? "" : " tt-reuse=" + options.ttReuse());
         if (aiType.equals("sample") || aiType.equals("sampling") || aiType.equals("ignore4")) {
-            return base + " ignore4>" + ignore4Threshold;
+            return base + " ignore4>" + options.ignore4Threshold();
+        }
+        if (aiType.equals("prob")) {
+            return base + " p>=" + options.minProbability();
+        }
+        if (aiType.equals("adaptive")) {
+            return base + " policy=" + options.depthPolicy();
+        }
+        if (aiType.equals("mcts")) {
+            // depth and cache do not apply
+            return aiType + (options.timed() ? " move-ms=" + options.moveMillis() : " iters=" + options.mctsIterations());
+        }
+        if (aiType.equals("rollout")) {
+            // depth and cache do not apply
+            return aiType + " n=" + options.rollouts() + " horizon=" + options.horizon() + " " + options.rolloutPolicy();
         }
         return base;
     }
 
-    private static Player getPlayer(String aiType, GameConfig config, int depth, boolean useCache, int ignore4Threshold) {
-        Evaluator evaluator = new ClassicEvaluator();
+    private static BoundedEvaluator requireBounds(Evaluator evaluator, String aiType) {
+        if (!(evaluator instanceof BoundedEvaluator bounded)) {
+            throw new IllegalArgumentException("--ai " + aiType + " needs an evaluator with score bounds");
+        }
+        return bounded;
+    }
+
+    private static boolean parseTtReuse(String name) {
+        return switch (name) {
+            case "exact" -> false;
+            case "deeper" -> true;
+            default -> throw new IllegalArgumentException("Unknown TT reuse mode: " + name + " (expected: exact, deeper)");
+        };
+    }
+
+    private static RolloutPlayer.Policy parseRolloutPolicy(String name) {
+        return switch (name) {
+            case "random" -> RolloutPlayer.Policy.RANDOM;
+            case "greedy" -> RolloutPlayer.Policy.GREEDY;
+            default -> throw new IllegalArgumentException("Unknown rollout policy: " + name + " (expected: random, greedy)");
+        };
+    }
+
+    private static Evaluator getEvaluator(String name, String weights, int gridSize) {
+        return switch (name) {
+            case "table" -> new TableEvaluator();
+            case "classic" -> new ClassicEvaluator();
+            case "ntuple" -> loadNTuple(weights, gridSize);
+            default -> throw new IllegalArgumentException(
+                    "Unknown evaluator: " + name + " (expected: table, classic, ntuple)"
+            );
+        };
+    }
+
+    private static Evaluator loadNTuple(String weights, int gridSize) {
+        if (weights == null) {
+            throw new IllegalArgumentException("--eval ntuple requires --weights <file>");
+        }
+        if (gridSize != DEFAULT_GRID_SIZE) {
+            throw new IllegalArgumentException("--eval ntuple only supports 4x4 boards. Got size: " + gridSize);
+        }
+        try {
+            return NTupleEvaluator.load(Path.of(weights));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to load n-tuple weights: " + weights, e);
+        }
+    }
+
+    /** @param pool shared by pooled players (parallel, rollout) and left running; null gives each its own */
+    private static Player getPlayer(String aiType, Evaluator evaluator, GameConfig config, int depth, boolean useCache,
+                                    PlayerOptions options, ForkJoinPool pool) {
+        int ttMb = options.ttMegabytes();
+        boolean reuseDeeper = parseTtReuse(options.ttReuse());
+
+        if (options.timed() && !aiType.equals("default") && !aiType.equals("mcts")) {
+            throw new IllegalArgumentException("--move-ms is only supported by --ai default and mcts. Got: " + aiType);
+        }
+        if (reuseDeeper && !aiType.equals("default") && !aiType.equals("adaptive")) {
+            throw new IllegalArgumentException("--tt-reuse deeper is only supported by --ai default and adaptive. Got: " + aiType);
+        }
 
         return switch (aiType) {
-            case "default" -> new ExpectimaxPlayer(config, evaluator, depth, useCache);
+            case "default" -> options.timed()
+                    ? new TimedExpectimaxPlayer(config, evaluator, depth, options.moveMillis(), useCache, ttMb, reuseDeeper)
+                    : new ExpectimaxPlayer(config, evaluator, depth, useCache, ttMb, reuseDeeper);
             case "sample", "sampling", "ignore4" ->
-                    new SamplingExpectimaxPlayer(config, evaluator, depth, useCache, ignore4Threshold);
+                    new SamplingExpectimaxPlayer(config, evaluator, depth, useCache, options.ignore4Threshold(), ttMb);
+            case "adaptive" -> new AdaptiveDepthPlayer(config, evaluator, DepthPolicy.parse(options.depthPolicy()), depth,
+                    useCache, ttMb, reuseDeeper);
+            case "prob" -> new ProbabilityCutoffPlayer(config, evaluator, depth, useCache, ttMb, options.minProbability());
+            case "parallel" -> pool != null
+                    ? new ParallelExpectimaxPlayer(config, evaluator, depth, useCache, ttMb, pool, options.splitPlies())
+                    : new ParallelExpectimaxPlayer(config, evaluator, depth, useCache, ttMb,
+                            options.threads(), options.splitPlies());
+            case "rollout" -> pool != null
+                    ? new RolloutPlayer(config, options.rollouts(), options.horizon(),
+                            parseRolloutPolicy(options.rolloutPolicy()), pool)
+                    : new RolloutPlayer(config, options.rollouts(), options.horizon(),
+                            parseRolloutPolicy(options.rolloutPolicy()), options.threads());
+            case "mcts" -> new MctsPlayer(config, requireBounds(evaluator, aiType), options.mctsIterations(),
+                    options.moveMillis(), options.mctsNodes());
+            case "star" -> new StarExpectimaxPlayer(config, requireBounds(evaluator, aiType), depth, useCache, ttMb);
             default -> throw new IllegalArgumentException(
-                    "Unknown AI type: " + aiType + " (expected: default, sample)"
+                    "Unknown AI type: " + aiType + " (expected: default, sample, prob, adaptive, parallel, star, rollout, mcts)"
             );
         };
     }
@@ -282,8 +570,10 @@ public class Main {
 
     private static String buildMarkdownReportPath(
             String aiArg,
+            String evalArg,
             String depthArg,
             String cacheArg,
+            int gridSize,
             int runs,
             long seed,
             double warmupFraction,
@@ -298,8 +588,10 @@ public class Main {
 
         String fileName = "report_"
                 + "ai-" + slug(aiArg)
+                + (evalArg.equals(DEFAULT_EVAL) ? "" : "_eval-" + slug(evalArg))
                 + "_depth-" + slug(depthArg)
                 + "_cache-" + slug(cacheArg)
+                + (gridSize == DEFAULT_GRID_SIZE ? "" : "_size-" + gridSize)
                 + "_runs-" + runs
                 + "_seed-" + seed
                 + "_warmup-" + Math.round(warmupFraction * 100) + "pct"
@@ -338,6 +630,45 @@ public class Main {
         return x;
     }
 
+    private static long parsePositiveLong(String s, String name) {
+        final long x;
+        try {
+            x = Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer. Got: " + s, e);
+        }
+        if (x <= 0) {
+            throw new IllegalArgumentException(name + " must be > 0. Got: " + x);
+        }
+        return x;
+    }
+
+    private static double parseProbability(String s, String name) {
+        final double x;
+        try {
+            x = Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number. Got: " + s, e);
+        }
+        if (!(x >= 0.0 && x < 1.0)) {
+            throw new IllegalArgumentException(name + " must be in [0, 1). Got: " + s);
+        }
+        return x;
+    }
+
+    private static double parsePositiveDouble(String s, String name) {
+        final double x;
+        try {
+            x = Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number. Got: " + s, e);
+        }
+        if (!(x > 0.0) || Double.isInfinite(x)) {
+            throw new IllegalArgumentException(name + " must be > 0. Got: " + s);
+        }
+        return x;
+    }
+
     private static int parseNonNegativeInt(String s, String name) {
         final int x;
         try {
@@ -351,6 +682,14 @@ public class Main {
         return x;
     }
 
+    private static int parseGridSize(String s) {
+        int n = parsePositiveInt(s, "size");
+        if (n < 2 || n > Board.MAX_MASK_DIMENSION) {
+            throw new IllegalArgumentException("size must be between 2 and " + Board.MAX_MASK_DIMENSION + ". Got: " + n);
+        }
+        return n;
+    }
+
     private static long parseLong(String s, String name) {
         try {
             return Long.parseLong(s);
@@ -364,28 +703,68 @@ public class Main {
         System.out.println("  java app.Main [play flags...]");
         System.out.println("  java app.Main play [play flags...]");
         System.out.println("  java app.Main experiment [experiment flags...]");
+        System.out.println("  java app.Main train --weights <file> [train flags...]");
         System.out.println();
         System.out.println("Defaults:");
         System.out.println("  default mode: " + (DEFAULT_PLAY_MODE ? "play" : "experiment"));
         System.out.println();
         System.out.println("Play flags (single values):");
-        System.out.println("  --ai default|sample       (default: " + DEFAULT_PLAY_AI + ")");
-        System.out.println("  --depth <n>               (default: " + DEFAULT_PLAY_DEPTH + ")");
+        System.out.println("  --ai default|sample|prob|adaptive|parallel|star|rollout|mcts (default: " + DEFAULT_PLAY_AI + ")");
+        System.out.println("  --eval table|classic|ntuple (default: " + DEFAULT_EVAL + ")");
+        System.out.println("  --weights <file>          n-tuple weights, required by --eval ntuple");
+        System.out.println("  --depth <n>               (default: " + DEFAULT_PLAY_DEPTH + "; the maximum with --move-ms)");
+        System.out.println("  --move-ms <n>             per-move budget: deepen from depth 1 until it runs out (--ai default), or search time (--ai mcts)");
         System.out.println("  --cache <bool>            (default: " + DEFAULT_PLAY_CACHE + ")");
+        System.out.println("  --tt-mb <n>               transposition table MB (default: " + ExpectimaxPlayer.DEFAULT_TT_MB + ")");
+        System.out.println("  --tt-reuse exact|deeper   deeper: entries searched deeper answer shallower lookups, --ai default and adaptive (default: " + DEFAULT_TT_REUSE + ")");
+        System.out.println("  --threads <n>             search threads for --ai parallel and rollout (default: available processors)");
+        System.out.println("  --split-plies <n>         --ai parallel splits chance nodes with at least n plies left (default: " + ParallelExpectimaxPlayer.DEFAULT_SPLIT_PLIES + ")");
         System.out.println("  --ignore4 <n>             (default: " + DEFAULT_IGNORE4_THRESHOLD + ")");
+        System.out.println("  --depth-policy <rules>    --ai adaptive: e.g. empty<=2:4,distinct>=10:3,*:2 (default: " + AdaptiveDepthPlayer.DEFAULT_POLICY + ")");
+        System.out.println("  --min-prob <p>            --ai prob: evaluate spawns reached with probability below p (default: " + ProbabilityCutoffPlayer.DEFAULT_MIN_PROBABILITY + ")");
+        System.out.println("  --rollouts <n>            --ai rollout: rollouts per legal move (default: " + RolloutPlayer.DEFAULT_ROLLOUTS + ")");
+        System.out.println("  --horizon <n>             --ai rollout: moves per rollout, 0 = to game end (default: " + RolloutPlayer.DEFAULT_HORIZON + ")");
+        System.out.println("  --rollout-policy <p>      --ai rollout: random|greedy (default: " + DEFAULT_ROLLOUT_POLICY + ")");
+        System.out.println("  --mcts-iters <n>          --ai mcts: iterations per move without --move-ms (default: " + MctsPlayer.DEFAULT_ITERATIONS + ")");
+        System.out.println("  --mcts-nodes <n>          --ai mcts: node pool size (default: " + MctsPlayer.DEFAULT_CAPACITY + ")");
         System.out.println("  --seed <n>                (default: " + DEFAULT_PLAY_SEED + ")");
         System.out.println("  --pace auto|step          (default: " + DEFAULT_PACE + ")");
         System.out.println("  --delay-ms <n>            (default: " + DEFAULT_DELAY_MS + ")");
+        System.out.println("  --size <n>                (default: " + DEFAULT_GRID_SIZE + ")");
         System.out.println();
-        System.out.println("Experiment flags (CSV supported for ai/depth/cache):");
-        System.out.println("  --ai default,sample         (default: " + DEFAULT_EXPERIMENT_AI + ")");
-        System.out.println("  --depth 2,3,4               (default: " + DEFAULT_EXPERIMENT_DEPTH + ")");
+        System.out.println("Experiment flags (CSV supported for ai/eval/depth/cache):");
+        System.out.println("  --ai default,sample,prob,adaptive,parallel,star,rollout,mcts (default: " + DEFAULT_EXPERIMENT_AI + ")");
+        System.out.println("  --eval table,classic,ntuple (default: " + DEFAULT_EVAL + ")");
+        System.out.println("  --weights <file>            n-tuple weights, required by --eval ntuple");
+        System.out.println("  --depth 2,3,4               (default: " + DEFAULT_EXPERIMENT_DEPTH + "; the maximum with --move-ms)");
+        System.out.println("  --move-ms <n>               per-move budget: deepen from depth 1 until it runs out (--ai default), or search time (--ai mcts)");
         System.out.println("  --cache true,false          (default: " + DEFAULT_EXPERIMENT_CACHE + ")");
+        System.out.println("  --tt-mb <n>                 transposition table MB per player (default: " + ExpectimaxPlayer.DEFAULT_TT_MB + ")");
+        System.out.println("  --tt-reuse exact|deeper     deeper: entries searched deeper answer shallower lookups, --ai default and adaptive (default: " + DEFAULT_TT_REUSE + ")");
+        System.out.println("  --threads <n>               search threads for --ai parallel and rollout (default: available processors)");
+        System.out.println("  --split-plies <n>           --ai parallel splits chance nodes with at least n plies left (default: " + ParallelExpectimaxPlayer.DEFAULT_SPLIT_PLIES + ")");
         System.out.println("  --ignore4 <n>               (default: " + DEFAULT_IGNORE4_THRESHOLD + ")");
+        System.out.println("  --depth-policy <rules>      --ai adaptive: e.g. empty<=2:4,distinct>=10:3,*:2 (default: " + AdaptiveDepthPlayer.DEFAULT_POLICY + ")");
+        System.out.println("  --min-prob <p>              --ai prob: evaluate spawns reached with probability below p (default: " + ProbabilityCutoffPlayer.DEFAULT_MIN_PROBABILITY + ")");
+        System.out.println("  --rollouts <n>              --ai rollout: rollouts per legal move (default: " + RolloutPlayer.DEFAULT_ROLLOUTS + ")");
+        System.out.println("  --horizon <n>               --ai rollout: moves per rollout, 0 = to game end (default: " + RolloutPlayer.DEFAULT_HORIZON + ")");
+        System.out.println("  --rollout-policy <p>        --ai rollout: random|greedy (default: " + DEFAULT_ROLLOUT_POLICY + ")");
+        System.out.println("  --mcts-iters <n>            --ai mcts: iterations per move without --move-ms (default: " + MctsPlayer.DEFAULT_ITERATIONS + ")");
+        System.out.println("  --mcts-nodes <n>            --ai mcts: node pool size (default: " + MctsPlayer.DEFAULT_CAPACITY + ")");
+        System.out.println("  --size <n>                  (default: " + DEFAULT_GRID_SIZE + ")");
         System.out.println("  --runs <n>                  (default: " + DEFAULT_RUNS + ")");
         System.out.println("  --seed <n>                  (default: " + DEFAULT_EXPERIMENT_SEED + ")");
         System.out.println("  --checkpoints <n>           (default: " + DEFAULT_CHECKPOINTS + ")");
         System.out.println("  --warmup <fraction|percent> (default: " + DEFAULT_WARMUP_FRACTION + " or " + Math.round(DEFAULT_WARMUP_FRACTION * 100) + "%)");
+        System.out.println();
+        System.out.println("Train flags (TD self-play for --eval ntuple weights):");
+        System.out.println("  --weights <file>            output; resumed if it already exists");
+        System.out.println("  --games <n>                 (default: " + DEFAULT_TRAIN_GAMES + ")");
+        System.out.println("  --threads <n>               (default: available processors)");
+        System.out.println("  --alpha <x>                 (default: " + DEFAULT_LEARNING_RATE + ")");
+        System.out.println("  --seed <n>                  (default: " + DEFAULT_TRAIN_SEED + ")");
+        System.out.println("  --report-sec <n>            (default: " + DEFAULT_REPORT_SEC + ")");
+        System.out.println("  --save-sec <n>              (default: " + DEFAULT_SAVE_SEC + ", 0 = only at the end)");
         System.exit(0);
     }
 }
\ No newline at end of file
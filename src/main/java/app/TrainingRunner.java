@@ -0,0 +1,169 @@
+package app;
+
+import ai.train.NTupleNetwork;
+import ai.train.TDLearner;
+import app.dto.TrainingPlan;
+import app.dto.TrainingSnapshot;
+import app.output.TrainingSink;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.runtime.GameSession;
+import game.runtime.SessionResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Self-play TD training: every thread runs GameSessions with its own
+ * {@link TDLearner}, all updating one shared {@link NTupleNetwork} without
+ * locks. Game i uses seed baseSeed + i, whichever thread plays it.
+ */
+public class TrainingRunner {
+    private final GameConfig config;
+    private final ClassicRules2048 rules;
+
+    public TrainingRunner(GameConfig config) {
+        if (config.gridSize() != 4) {
+            throw new IllegalArgumentException("Training needs a 4x4 board, got " + config.gridSize());
+        }
+        if (!(config.rules() instanceof ClassicRules2048 classic)) {
+            throw new IllegalArgumentException("Training needs ClassicRules2048 (packed moves and scores)");
+        }
+        this.config = config;
+        this.rules = classic;
+    }
+
+    // shared counters, updated once per finished game
+    private static final class Acc {
+        final LongAdder games = new LongAdder();
+        final LongAdder updates = new LongAdder();
+        final LongAdder totalScore = new LongAdder();
+        final LongAdder totalMaxTile = new LongAdder();
+        final LongAdder reached2048 = new LongAdder();
+        final LongAccumulator bestScore = new LongAccumulator(Math::max, 0);
+
+        void add(SessionResult r, long newUpdates) {
+            totalScore.add(r.finalScore());
+            totalMaxTile.add(r.maxTile());
+            if (r.reached2048()) reached2048.increment();
+            bestScore.accumulate(r.finalScore());
+            updates.add(newUpdates);
+            games.increment();
+        }
+
+        Totals totals() {
+            return new Totals(System.nanoTime(), games.sum(), updates.sum(), totalScore.sum(),
+                    totalMaxTile.sum(), reached2048.sum());
+        }
+    }
+
+    private record Totals(long nanos, long games, long updates, long score, long maxTile, long reached2048) {}
+
+    public void train(NTupleNetwork net, TrainingPlan plan, List<TrainingSink> sinks) {
+        Acc acc = new Acc();
+        AtomicLong nextGame = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        ExecutorService pool = Executors.newFixedThreadPool(plan.threads());
+        List<Future<?>> workers = new ArrayList<>(plan.threads());
+        Totals start = acc.totals();
+
+        for (int t = 0; t < plan.threads(); t++) {
+            workers.add(pool.submit(() -> {
+                TDLearner learner = new TDLearner(net, rules, plan.learningRate());
+                try {
+                    while (!failed.get()) {
+                        long g = nextGame.getAndIncrement();
+                        if (g >= plan.games()) break;
+
+                        long before = learner.updates();
+                        SessionResult r = new GameSession(config, plan.baseSeed() + g).runGame(learner);
+                        learner.endGame();
+                        acc.add(r, learner.updates() - before);
+                    }
+                } catch (RuntimeException | Error e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }));
+        }
+        pool.shutdown();
+
+        Totals prev = start;
+        long lastSave = start.nanos();
+        try {
+            while (!pool.awaitTermination(plan.reportEverySec(), TimeUnit.SECONDS)) {
+                Totals now = acc.totals();
+                TrainingSnapshot snap = snapshot(start, prev, now, plan.games(), acc);
+                for (TrainingSink sink : sinks) sink.onCheckpoint(snap);
+                prev = now;
+
+                if (plan.saveEverySec() > 0 && now.nanos() - lastSave >= TimeUnit.SECONDS.toNanos(plan.saveEverySec())) {
+                    save(net, plan);
+                    lastSave = now.nanos();
+                }
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Training interrupted", e);
+        }
+
+        for (Future<?> w : workers) {
+            try {
+                w.get();
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Training worker failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Training interrupted", e);
+            }
+        }
+
+        save(net, plan);
+        TrainingSnapshot last = snapshot(start, start, acc.totals(), plan.games(), acc);
+        for (TrainingSink sink : sinks) sink.onFinal(last);
+    }
+
+    private static void save(NTupleNetwork net, TrainingPlan plan) {
+        try {
+            net.save(plan.weightsFile());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save weights to " + plan.weightsFile(), e);
+        }
+    }
+
+    // rates and means over [from, to]; elapsed time from the start of training
+    private static TrainingSnapshot snapshot(Totals start, Totals from, Totals to, long gamesTotal, Acc acc) {
+        double sec = Math.max(1e-9, (to.nanos() - from.nanos()) / 1_000_000_000.0);
+        long games = to.games() - from.games();
+        double window = Math.max(1, games);
+
+        return new TrainingSnapshot(
+                to.games(),
+                gamesTotal,
+                (to.nanos() - start.nanos()) / 1_000_000_000.0,
+
+                games / sec,
+                (to.updates() - from.updates()) / sec,
+
+                games,
+                (to.score() - from.score()) / window,
+                (to.maxTile() - from.maxTile()) / window,
+                100.0 * (to.reached2048() - from.reached2048()) / window,
+
+                (int) acc.bestScore.get(),
+                to.updates()
+        );
+    }
+}
@@ -1,5 +1,8 @@
 package app.dto;
 
+import java.util.Locale;
+import java.util.StringJoiner;
+
 public record ExperimentResult(
         String label,
         ExperimentSpec spec,
@@ -24,5 +27,26 @@ public record ExperimentResult(
         // Search stats (optional)
         boolean hasSearchStats,
         double nodesPerSec,
-        double avgOutcomes
-) {}
\ No newline at end of file
+        double nodesPerMove,
+        double prunedPerMove,
+        double avgOutcomes,
+        double cacheHitPct,
+        double cacheCarriedPct, // lookups answered by an earlier move's entries
+        long cacheCollisions,
+        long cacheReplacements,
+        long[] movesByDepth // index = search depth reached, 0 for players without one
+) {
+
+    /** Share of moves per depth reached, e.g. "3: 20.0% | 4: 80.0%"; empty for players without a depth. */
+    public String depthUsage() {
+        long total = 0;
+        for (long m : movesByDepth) total += m;
+
+        StringJoiner out = new StringJoiner(" | ");
+        for (int d = 1; d < movesByDepth.length; d++) {
+            if (movesByDepth[d] == 0) continue;
+            out.add(String.format(Locale.ROOT, "%d: %.1f%%", d, 100.0 * movesByDepth[d] / total));
+        }
+        return out.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package app.dto;
+
+/** Player settings shared by every experiment case (depth and cache vary per case, see ExperimentSpec). */
+public record PlayerOptions(
+        int ttMegabytes,
+        // exact: hits need the same plies; deeper: entries searched deeper answer too
+        String ttReuse,
+        int ignore4Threshold,
+
+        // --ai prob
+        double minProbability,
+
+        // --ai adaptive: rules for DepthPolicy#parse
+        String depthPolicy,
+
+        // --ai parallel (threads also for --ai rollout)
+        int threads,
+        int splitPlies,
+
+        // --ai rollout: rollouts per move, moves per rollout (0 = to game end), random|greedy
+        int rollouts,
+        int horizon,
+        String rolloutPolicy,
+
+        // --ai mcts: iterations per move (without --move-ms) and node pool size
+        int mctsIterations,
+        int mctsNodes,
+
+        // 0 = fixed depth; otherwise iterative deepening up to the depth within this budget
+        long moveMillis
+) {
+    public boolean timed() {
+        return moveMillis > 0;
+    }
+}
@@ -0,0 +1,13 @@
+package app.dto;
+
+import java.nio.file.Path;
+
+public record TrainingPlan(
+        long games,
+        int threads,
+        double learningRate,
+        long baseSeed,
+        int reportEverySec,
+        int saveEverySec,
+        Path weightsFile
+) {}
@@ -0,0 +1,20 @@
+package app.dto;
+
+public record TrainingSnapshot(
+        long gamesDone,
+        long gamesTotal,
+        double elapsedSec,
+
+        // Throughput since the previous snapshot (whole run for the final one)
+        double gamesPerSec,
+        double updatesPerSec,
+
+        // Games finished since the previous snapshot (whole run for the final one)
+        long windowGames,
+        double meanScore,
+        double meanMaxTile,
+        double reached2048Pct,
+
+        int bestScore,
+        long totalUpdates
+) {}
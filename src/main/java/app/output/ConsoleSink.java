@@ -75,6 +75,9 @@ public final class ConsoleSink implements OutputSink {
         if (r.cpuAvailableForAll()) {
             System.out.printf(Locale.ROOT, "  Total CPU time  : %.3f s%n", r.totalCpuSec());
             System.out.printf(Locale.ROOT, "  Avg CPU per run : %.6f s%n", r.avgCpuSec());
+            if (r.totalCpuSec() > 0) {
+                System.out.printf(Locale.ROOT, "  Steps per CPU s : %.1f%n", r.meanSteps() * r.n() / r.totalCpuSec());
+            }
         } else {
             System.out.println("  CPU time        : unavailable");
         }
@@ -83,7 +86,16 @@ public final class ConsoleSink implements OutputSink {
             System.out.println();
             System.out.println("Search (aggregated)");
             System.out.printf(Locale.ROOT, "  nodes/sec       : %.0f%n", r.nodesPerSec());
+            System.out.printf(Locale.ROOT, "  nodes/move      : %.0f%n", r.nodesPerMove());
+            if (r.prunedPerMove() > 0) {
+                System.out.printf(Locale.ROOT, "  pruned/move     : %.1f%n", r.prunedPerMove());
+            }
             System.out.printf(Locale.ROOT, "  avgOutcomes     : %.2f%n", r.avgOutcomes());
+            System.out.printf(Locale.ROOT, "  TT hit rate     : %.2f %%%n", r.cacheHitPct());
+            System.out.printf(Locale.ROOT, "  TT carried hits : %.2f %%%n", r.cacheCarriedPct());
+            System.out.printf(Locale.ROOT, "  TT collisions   : %d%n", r.cacheCollisions());
+            System.out.printf(Locale.ROOT, "  TT replacements : %d%n", r.cacheReplacements());
+            if (!r.depthUsage().isEmpty()) System.out.println("  Depth reached   : " + r.depthUsage());
         }
     }
 }
\ No newline at end of file
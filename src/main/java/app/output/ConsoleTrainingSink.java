@@ -0,0 +1,41 @@
+package app.output;
+
+import app.dto.TrainingSnapshot;
+
+import java.util.Locale;
+
+public final class ConsoleTrainingSink implements TrainingSink {
+
+    @Override
+    public void onCheckpoint(TrainingSnapshot s) {
+        int percent = (int) ((100.0 * s.gamesDone()) / Math.max(1, s.gamesTotal()));
+
+        System.out.printf(Locale.ROOT,
+                "[%7.0fs] %d%% (%d / %d)  games/sec=%.0f updates/sec=%.0f  mean=%.1f maxTile=%.0f p2048=%.1f%%%n",
+                s.elapsedSec(), percent, s.gamesDone(), s.gamesTotal(),
+                s.gamesPerSec(), s.updatesPerSec(),
+                s.meanScore(), s.meanMaxTile(), s.reached2048Pct());
+    }
+
+    @Override
+    public void onFinal(TrainingSnapshot s) {
+        System.out.println();
+        System.out.println("=== Training Results ===");
+        System.out.println("Games             : " + s.gamesDone());
+        System.out.println("TD updates        : " + s.totalUpdates());
+
+        System.out.println();
+        System.out.println("Throughput");
+        System.out.printf(Locale.ROOT, "  Wall time       : %.3f s%n", s.elapsedSec());
+        System.out.printf(Locale.ROOT, "  games/sec       : %.1f%n", s.gamesPerSec());
+        System.out.printf(Locale.ROOT, "  games/hour      : %.0f%n", s.gamesPerSec() * 3600.0);
+        System.out.printf(Locale.ROOT, "  updates/sec     : %.0f%n", s.updatesPerSec());
+
+        System.out.println();
+        System.out.println("Self-play (all games)");
+        System.out.printf(Locale.ROOT, "  Average score   : %.2f%n", s.meanScore());
+        System.out.printf(Locale.ROOT, "  Best score      : %d%n", s.bestScore());
+        System.out.printf(Locale.ROOT, "  Average max tile: %.2f%n", s.meanMaxTile());
+        System.out.printf(Locale.ROOT, "  Reached 2048    : %.2f %%%n", s.reached2048Pct());
+    }
+}
@@ -79,6 +79,9 @@ public final class MarkdownFileSink implements OutputSink {
             if (r.cpuAvailableForAll()) {
                 w.write(String.format(Locale.ROOT, "- Total CPU time: %.3f\n", r.totalCpuSec()));
                 w.write(String.format(Locale.ROOT, "- Avg CPU per run: %.6f\n", r.avgCpuSec()));
+                if (r.totalCpuSec() > 0) {
+                    w.write(String.format(Locale.ROOT, "- Steps per CPU second: %.1f\n", r.meanSteps() * r.n() / r.totalCpuSec()));
+                }
             } else {
                 w.write("- CPU time: unavailable\n");
             }
@@ -86,7 +89,16 @@ public final class MarkdownFileSink implements OutputSink {
             if (r.hasSearchStats()) {
                 w.write("\n**Search (aggregated)**\n\n");
                 w.write(String.format(Locale.ROOT, "- Nodes/sec: %.0f\n", r.nodesPerSec()));
+                w.write(String.format(Locale.ROOT, "- Nodes/move: %.0f\n", r.nodesPerMove()));
+                if (r.prunedPerMove() > 0) {
+                    w.write(String.format(Locale.ROOT, "- Pruned/move: %.1f\n", r.prunedPerMove()));
+                }
                 w.write(String.format(Locale.ROOT, "- Avg outcomes: %.2f\n", r.avgOutcomes()));
+                w.write(String.format(Locale.ROOT, "- TT hit rate: %.2f%%\n", r.cacheHitPct()));
+                w.write(String.format(Locale.ROOT, "- TT carried hits: %.2f%%\n", r.cacheCarriedPct()));
+                w.write("- TT collisions: " + r.cacheCollisions() + "\n");
+                w.write("- TT replacements: " + r.cacheReplacements() + "\n");
+                if (!r.depthUsage().isEmpty()) w.write("- Depth reached: " + r.depthUsage() + "\n");
             }
 
             w.write("\n---\n\n");
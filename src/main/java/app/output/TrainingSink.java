@@ -0,0 +1,8 @@
+package app.output;
+
+import app.dto.TrainingSnapshot;
+
+public interface TrainingSink {
+    void onCheckpoint(TrainingSnapshot snapshot);
+    void onFinal(TrainingSnapshot snapshot);
+}
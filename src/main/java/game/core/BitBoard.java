@@ -0,0 +1,211 @@
+package game.core;
+
+/**
+ * Packed 4x4 board: 16 cells of 4 bits in a single long, each holding the
+ * tile exponent (0 = empty, e = tile 2^e).
+ * Cell index i = r * 4 + c lives at bits [4i, 4i + 4), so row r is the 16-bit
+ * chunk starting at bit 16r with column 0 in its lowest nibble.
+ *
+ * All methods are static and work on primitive longs so search code can
+ * carry boards around without allocating.
+ */
+public final class BitBoard {
+
+    public static final int SIZE = 4;
+    public static final int CELLS = SIZE * SIZE;
+
+    /** Largest exponent a 4-bit cell can hold (tile 32768). */
+    public static final int MAX_EXPONENT = 15;
+
+    private static final long ROW_MASK = 0xFFFFL;
+
+    private BitBoard() {}
+
+    /* =========================
+       Conversions
+       ========================= */
+
+    /**
+     * True if the board is 4x4 and every tile leaves room for one more merge
+     * inside a 4-bit cell, so a packed move gives exactly the array result.
+     */
+    public static boolean supports(Board board) {
+        if (board.getDimension() != SIZE) return false;
+        return board.getMaxExponent() < MAX_EXPONENT;
+    }
+
+    /**
+     * True if the board {@link #supports(Board) is supported} and no sequence
+     * of moves with at most {@code spawns} more spawns can build two 2^15
+     * tiles: their merge does not fit a cell, and packed moves leave it out
+     * (see ClassicRules2048). Two 2^15 tiles need a tile sum of 2^16, and a
+     * spawn adds at most 4.
+     */
+    public static boolean supports(Board board, int spawns) {
+        if (!supports(board)) return false;
+        long sum = 0;
+        for (int i = 0; i < CELLS; i++) {
+            int e = board.exponentAt(i);
+            if (e > 0) sum += 1L << e;
+        }
+        return sum + 4L * spawns < 2L << MAX_EXPONENT;
+    }
+
+    public static long pack(Board board) {
+        if (board.getDimension() != SIZE) {
+            throw new IllegalArgumentException("BitBoard requires a 4x4 board, got " + board.getDimension());
+        }
+        long bits = 0L;
+        for (int i = 0; i < CELLS; i++) {
+            int e = board.exponentAt(i);
+            if (e > MAX_EXPONENT) {
+                throw new IllegalArgumentException("Tile too large to pack: 2^" + e);
+            }
+            bits |= (long) e << (4 * i);
+        }
+        return bits;
+    }
+
+    public static Board toBoard(long bits) {
+        return toBoard(bits, Zobrist.hash(bits));
+    }
+
+    /** For callers that maintain the Zobrist hash incrementally (see Zobrist#delta). */
+    public static Board toBoard(long bits, long zobristHash) {
+        byte[] exps = new byte[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            exps[i] = (byte) exponent(bits, i);
+        }
+        return Board.wrapTrustedExponents(SIZE, exps, zobristHash);
+    }
+
+    /** Flat tile values (r * 4 + c), the same layout Board uses. */
+    public static int[] toCells(long bits) {
+        int[] cells = new int[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            cells[i] = value(bits, i);
+        }
+        return cells;
+    }
+
+    /* =========================
+       Cell access
+       ========================= */
+
+    public static int exponent(long bits, int cellIndex) {
+        return (int) (bits >>> (4 * cellIndex)) & 0xF;
+    }
+
+    public static int value(long bits, int cellIndex) {
+        int e = exponent(bits, cellIndex);
+        return e == 0 ? 0 : 1 << e;
+    }
+
+    public static int get(long bits, int r, int c) {
+        return value(bits, r * SIZE + c);
+    }
+
+    /** Returns a copy of the board with the given cell set to the given exponent. */
+    public static long place(long bits, int cellIndex, int exponent) {
+        int shift = 4 * cellIndex;
+        return (bits & ~(0xFL << shift)) | ((long) exponent << shift);
+    }
+
+    public static int row(long bits, int r) {
+        return (int) ((bits >>> (16 * r)) & ROW_MASK);
+    }
+
+    // lowest bit of every nibble
+    private static final long NIBBLE_LOW_BITS = 0x1111111111111111L;
+
+    /**
+     * Empty cells as a 16-bit mask (bit i set if cell i is empty), built with
+     * a few shifts: OR each nibble down into its lowest bit, then compress.
+     */
+    public static long emptyMask(long bits) {
+        long x = bits | (bits >>> 1);
+        x |= x >>> 2;
+        return Long.compress(~x & NIBBLE_LOW_BITS, NIBBLE_LOW_BITS);
+    }
+
+    public static int countEmpty(long bits) {
+        return Long.bitCount(emptyMask(bits));
+    }
+
+    /** Returns empty cells as flattened indices (r * 4 + c), like {@link Board#getEmptyCells()}. */
+    public static int[] emptyCells(long bits) {
+        long mask = emptyMask(bits);
+        int[] empty = new int[Long.bitCount(mask)];
+        int idx = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            empty[idx++] = Long.numberOfTrailingZeros(m);
+        }
+        return empty;
+    }
+
+    public static int maxExponent(long bits) {
+        int max = 0;
+        for (int i = 0; i < CELLS; i++) {
+            max = Math.max(max, (int) (bits >>> (4 * i)) & 0xF);
+        }
+        return max;
+    }
+
+    public static int maxTile(long bits) {
+        int e = maxExponent(bits);
+        return e == 0 ? 0 : 1 << e;
+    }
+
+    /* =========================
+       Transforms
+       ========================= */
+
+    /** Swaps rows and columns: cell (r, c) moves to (c, r). */
+    public static long transpose(long x) {
+        long a1 = x & 0xF0F00F0FF0F00F0FL;
+        long a2 = x & 0x0000F0F00000F0F0L;
+        long a3 = x & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    /** Mirrors left-right: cell (r, c) moves to (r, 3 - c). */
+    public static long flipHorizontal(long x) {
+        return ((x & 0x000F000F000F000FL) << 12)
+                | ((x & 0x00F000F000F000F0L) << 4)
+                | ((x >>> 4) & 0x00F000F000F000F0L)
+                | ((x >>> 12) & 0x000F000F000F000FL);
+    }
+
+    /** Mirrors top-bottom: row r moves to row 3 - r. */
+    public static long flipVertical(long x) {
+        return (x << 48)
+                | ((x & 0xFFFF0000L) << 16)
+                | ((x >>> 16) & 0xFFFF0000L)
+                | (x >>> 48);
+    }
+
+    /**
+     * Smallest of the 8 rotations/reflections of the board, so positions that
+     * are equivalent under the symmetries of the square map to the same long.
+     */
+    public static long canonical(long x) {
+        long h = flipHorizontal(x);
+        long v = flipVertical(x);
+        long hv = flipVertical(h);
+        long min = Math.min(Math.min(x, h), Math.min(v, hv));
+        long t = Math.min(Math.min(transpose(x), transpose(h)), Math.min(transpose(v), transpose(hv)));
+        return Math.min(min, t);
+    }
+
+    /** Reverses the 4 nibbles of a 16-bit row. */
+    public static int reverseRow(int row) {
+        return ((row >>> 12) & 0x000F)
+                | ((row >>> 4) & 0x00F0)
+                | ((row << 4) & 0x0F00)
+                | ((row << 12) & 0xF000);
+    }
+}
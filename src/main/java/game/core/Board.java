@@ -1,22 +1,30 @@
 package game.core;
 
 
+import game.util.Bits;
+
 import java.util.Arrays;
 
 /**
- * Immutable NxN board, stored as a flat array for performance.
+ * Immutable NxN board, stored as a flat array of tile exponents for performance
+ * (0 = empty, e = tile 2^e). Value accessors convert back to tile values.
  * Index: cells[r * n + c]
+ *
+ * Carries a 64-bit Zobrist hash (see {@link Zobrist}) that placeTile and the
+ * rules update incrementally, so caches can key on a primitive long.
+ * Boards up to 8x8 also carry an empty-cell bitmask (see {@link #emptyMask()}).
  */
 public final class Board {
 
+    /** Largest dimension whose cells fit a 64-bit mask. */
+    public static final int MAX_MASK_DIMENSION = 8;
+
     private static long getGridCalls = 0;
 
     private final int n;
-    private final int[] cells; // length = n*n
-
-    // cached hash
-    private int cachedHash;
-    private boolean hashComputed = false;
+    private final byte[] cells; // length = n*n, log2 of the tile value
+    private final long zobristHash;
+    private final long emptyMask; // bit i set if cell i is empty; unused above 8x8
 
     /* =========================
        Constructors / Factories
@@ -29,60 +37,135 @@ public final class Board {
     public Board(int dimension) {
         if (dimension <= 0) throw new IllegalArgumentException("Dimension must be positive");
         this.n = dimension;
-        this.cells = new int[n * n];
+        this.cells = new byte[n * n];
+        this.zobristHash = 0L;
+        this.emptyMask = computeEmptyMask(n, cells);
     }
 
     /**
-     * Escape hatch: takes ownership of a trusted flat array (no copy).
-     * Caller must guarantee it will never be mutated again.
+     * Builds a board from flat tile values (0 or powers of two).
+     * The values are converted to exponents, so the array is not retained.
      */
     public static Board wrapTrustedCells(int n, int[] trustedCells) {
         if (n <= 0) throw new IllegalArgumentException("n must be positive");
         if (trustedCells == null || trustedCells.length != n * n) {
             throw new IllegalArgumentException("trustedCells length must be n*n");
         }
-        return new Board(n, trustedCells);
+        byte[] exps = new byte[trustedCells.length];
+        for (int i = 0; i < exps.length; i++) {
+            exps[i] = (byte) exponentOf(trustedCells[i]);
+        }
+        return new Board(n, exps, Zobrist.hash(exps));
     }
 
-    private Board(int n, int[] trustedCells) {
+    /**
+     * Escape hatch: takes ownership of a trusted flat exponent array (no copy).
+     * Caller must guarantee it will never be mutated again.
+     */
+    public static Board wrapTrustedExponents(int n, byte[] trustedExponents) {
+        if (n <= 0) throw new IllegalArgumentException("n must be positive");
+        if (trustedExponents == null || trustedExponents.length != n * n) {
+            throw new IllegalArgumentException("trustedExponents length must be n*n");
+        }
+        return new Board(n, trustedExponents, Zobrist.hash(trustedExponents));
+    }
+
+    /**
+     * Like {@link #wrapTrustedExponents(int, byte[])}, for callers that already
+     * maintain the Zobrist hash incrementally. The hash is not re-checked.
+     */
+    public static Board wrapTrustedExponents(int n, byte[] trustedExponents, long zobristHash) {
+        if (n <= 0) throw new IllegalArgumentException("n must be positive");
+        if (trustedExponents == null || trustedExponents.length != n * n) {
+            throw new IllegalArgumentException("trustedExponents length must be n*n");
+        }
+        return new Board(n, trustedExponents, zobristHash);
+    }
+
+    private Board(int n, byte[] trustedExponents, long zobristHash) {
         this.n = n;
-        this.cells = trustedCells;
+        this.cells = trustedExponents;
+        this.zobristHash = zobristHash;
+        this.emptyMask = computeEmptyMask(n, trustedExponents);
     }
 
     public int getDimension() {
         return n;
     }
 
+    /** 64-bit Zobrist hash of the tiles; equal boards of the same dimension have equal hashes. */
+    public long zobristHash() {
+        return zobristHash;
+    }
+
+    /**
+     * Smallest Zobrist hash over the 8 rotations/reflections of the board.
+     * Boards that are equivalent under the symmetries of the square share it.
+     */
+    public long canonicalHash() {
+        return Zobrist.canonicalHash(n, cells);
+    }
+
     public int get(int r, int c) {
+        return valueOf(cells[r * n + c]);
+    }
+
+    public int getExponent(int r, int c) {
         return cells[r * n + c];
     }
 
-    /** Mainly for UI/testing; creates a defensive 2D copy. */
+    /** Exponent at a flattened index (r * n + c); 0 = empty. */
+    public int exponentAt(int cellIndex) {
+        return cells[cellIndex];
+    }
+
+    /** Mainly for UI/testing; creates a defensive 2D copy of tile values. */
     public int[][] getGrid() {
         getGridCalls++;
         int[][] out = new int[n][n];
         for (int r = 0; r < n; r++) {
-            System.arraycopy(cells, r * n, out[r], 0, n);
+            for (int c = 0; c < n; c++) {
+                out[r][c] = get(r, c);
+            }
         }
         return out;
     }
 
     public int getMaxTile() {
+        return valueOf(getMaxExponent());
+    }
+
+    public int getMaxExponent() {
         int max = 0;
-        for (int v : cells) {
-            if (v > max) max = v;
+        for (byte e : cells) {
+            if (e > max) max = e;
         }
         return max;
     }
 
+    /**
+     * Empty cells as a bitmask: bit i is set if cell i (r * n + c) is empty.
+     * Only for boards up to {@link #MAX_MASK_DIMENSION}; larger boards throw.
+     */
+    public long emptyMask() {
+        if (n > MAX_MASK_DIMENSION) {
+            throw new UnsupportedOperationException("Empty-cell masks need at most 64 cells, board is " + n + "x" + n);
+        }
+        return emptyMask;
+    }
+
     /** Returns empty cells as flattened indices (r * n + c). */
     public int[] getEmptyCells() {
-        int count = 0;
-        for (int v : cells) {
-            if (v == 0) count++;
+        if (n <= MAX_MASK_DIMENSION) {
+            int[] empty = new int[Long.bitCount(emptyMask)];
+            int idx = 0;
+            for (long m = emptyMask; m != 0; m &= m - 1) {
+                empty[idx++] = Long.numberOfTrailingZeros(m);
+            }
+            return empty;
         }
 
-        int[] empty = new int[count];
+        int[] empty = new int[countEmptyCells()];
         int idx = 0;
         for (int i = 0; i < cells.length; i++) {
             if (cells[i] == 0) empty[idx++] = i;
@@ -90,13 +173,44 @@ public final class Board {
         return empty;
     }
 
+    public int countEmptyCells() {
+        if (n <= MAX_MASK_DIMENSION) return Long.bitCount(emptyMask);
+
+        int count = 0;
+        for (byte e : cells) {
+            if (e == 0) count++;
+        }
+        return count;
+    }
+
+    /** Index of the k-th empty cell (0-based, in getEmptyCells() order), without allocating. */
+    public int emptyCellAt(int k) {
+        if (n <= MAX_MASK_DIMENSION) {
+            if (k < 0 || k >= Long.bitCount(emptyMask)) {
+                throw new IndexOutOfBoundsException("no empty cell #" + k + " (only " + Long.bitCount(emptyMask) + ")");
+            }
+            return Bits.nthSetBit(emptyMask, k);
+        }
+
+        int seen = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == 0 && seen++ == k) return i;
+        }
+        throw new IndexOutOfBoundsException("no empty cell #" + k + " (only " + seen + ")");
+    }
+
     public Board placeTile(int cellIndex, int value) {
+        return placeExponent(cellIndex, exponentOf(value));
+    }
+
+    public Board placeExponent(int cellIndex, int exponent) {
         if (cellIndex < 0 || cellIndex >= n * n) {
             throw new IndexOutOfBoundsException("cellIndex out of range: " + cellIndex);
         }
-        int[] copy = Arrays.copyOf(cells, cells.length);
-        copy[cellIndex] = value;
-        return Board.wrapTrustedCells(n, copy);
+        byte[] copy = Arrays.copyOf(cells, cells.length);
+        copy[cellIndex] = (byte) exponent;
+        long hash = zobristHash ^ Zobrist.key(cellIndex, cells[cellIndex]) ^ Zobrist.key(cellIndex, exponent);
+        return new Board(n, copy, hash);
     }
 
 
@@ -104,15 +218,32 @@ public final class Board {
     public boolean equals(Object other) {
         if (this == other) return true;
         if (!(other instanceof Board b)) return false;
-        return this.n == b.n && Arrays.equals(this.cells, b.cells);
+        return this.n == b.n && this.zobristHash == b.zobristHash && Arrays.equals(this.cells, b.cells);
     }
 
     @Override
     public int hashCode() {
-        if (!hashComputed) {
-            cachedHash = 31 * n + Arrays.hashCode(cells);
-            hashComputed = true;
+        return 31 * n + Long.hashCode(zobristHash);
+    }
+
+    private static long computeEmptyMask(int n, byte[] cells) {
+        if (n > MAX_MASK_DIMENSION) return 0L;
+        long mask = 0L;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == 0) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    private static int valueOf(int exponent) {
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    private static int exponentOf(int tileValue) {
+        if (tileValue == 0) return 0;
+        if (tileValue < 2 || Integer.bitCount(tileValue) != 1) {
+            throw new IllegalArgumentException("Tile must be 0 or a power of two >= 2, got " + tileValue);
         }
-        return cachedHash;
+        return Integer.numberOfTrailingZeros(tileValue);
     }
-}
\ No newline at end of file
+}
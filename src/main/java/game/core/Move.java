@@ -1,11 +1,17 @@
 package game.core;
 
+/**
+ * Declaration order matters: bit masks of moves (see {@link #bit()}) use the
+ * ordinal, so LEFT = 1, RIGHT = 2, UP = 4, DOWN = 8.
+ */
 public enum Move {
     LEFT(1),
     RIGHT(2),
     UP(3),
     DOWN(4);
 
+    private static final Move[] VALUES = values();
+
     private final int code;
     private Move opposite;
 
@@ -27,4 +33,14 @@ public enum Move {
     public Move opposite() {
         return opposite;
     }
+
+    /** This move's bit in a legal-move mask. */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /** Inverse of {@link #ordinal()}, without the array copy of values(). */
+    public static Move byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
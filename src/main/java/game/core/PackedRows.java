@@ -0,0 +1,94 @@
+package game.core;
+
+/**
+ * Row-packed boards for grids other than 4x4: one int per line, 4 bits per
+ * cell holding the tile exponent (same cell encoding as {@link BitBoard}),
+ * with the first cell of the line in the lowest nibble.
+ *
+ * A line is either a row (column 0 first) or a column (row 0 first), so
+ * rules can slide both directions through the same row tables.
+ */
+public final class PackedRows {
+
+    /** Widest line that fits an int at 4 bits per cell. */
+    public static final int MAX_SIZE = 7;
+
+    private PackedRows() {}
+
+    /**
+     * True if every line of the board fits an int and every tile leaves room
+     * for one more merge inside a 4-bit cell.
+     */
+    public static boolean supports(Board board) {
+        if (board.getDimension() > MAX_SIZE) return false;
+        return board.getMaxExponent() < BitBoard.MAX_EXPONENT;
+    }
+
+    public static int[] rows(Board board) {
+        int n = board.getDimension();
+        int[] rows = new int[n];
+        for (int r = 0; r < n; r++) {
+            int line = 0;
+            for (int c = 0; c < n; c++) {
+                line |= board.getExponent(r, c) << (4 * c);
+            }
+            rows[r] = line;
+        }
+        return rows;
+    }
+
+    public static int[] columns(Board board) {
+        int n = board.getDimension();
+        int[] cols = new int[n];
+        for (int c = 0; c < n; c++) {
+            int line = 0;
+            for (int r = 0; r < n; r++) {
+                line |= board.getExponent(r, c) << (4 * r);
+            }
+            cols[c] = line;
+        }
+        return cols;
+    }
+
+    public static Board fromRows(int n, int[] rows) {
+        return Board.wrapTrustedExponents(n, toExponents(n, rows, false));
+    }
+
+    /** For callers that maintain the Zobrist hash incrementally. */
+    public static Board fromRows(int n, int[] rows, long zobristHash) {
+        return Board.wrapTrustedExponents(n, toExponents(n, rows, false), zobristHash);
+    }
+
+    public static Board fromColumns(int n, int[] cols) {
+        return Board.wrapTrustedExponents(n, toExponents(n, cols, true));
+    }
+
+    /** For callers that maintain the Zobrist hash incrementally. */
+    public static Board fromColumns(int n, int[] cols, long zobristHash) {
+        return Board.wrapTrustedExponents(n, toExponents(n, cols, true), zobristHash);
+    }
+
+    private static byte[] toExponents(int n, int[] lines, boolean columns) {
+        byte[] exps = new byte[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int cell = columns ? j * n + i : i * n + j;
+                exps[cell] = (byte) exponent(lines[i], j);
+            }
+        }
+        return exps;
+    }
+
+    public static int exponent(int line, int i) {
+        return (line >>> (4 * i)) & 0xF;
+    }
+
+    /** Reverses the order of the first n nibbles of a line. */
+    public static int reverse(int line, int n) {
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            out |= ((line >>> (4 * i)) & 0xF) << (4 * (n - 1 - i));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,154 @@
+package game.core;
+
+/**
+ * Search-only mutable board: a stack of NxN exponent buffers (same layout as
+ * {@link Board}), preallocated once so search can apply moves and spawns and
+ * undo them without allocating per node.
+ *
+ * Each push writes a new level on top of the current one; pop returns to the
+ * previous level. The immutable Board stays the public type everywhere else.
+ *
+ * Every level keeps its Zobrist hash and empty-cell mask, so boards are
+ * limited to {@link Board#MAX_MASK_DIMENSION}.
+ */
+public final class SearchBoard {
+
+    private final int n;
+    private final byte[][] levels;
+    private final long[] hashes;
+    private final long[] emptyMasks;
+    private int top;
+
+    /** @param capacity maximum number of levels, including the root */
+    public SearchBoard(int n, int capacity) {
+        if (n <= 0) throw new IllegalArgumentException("n must be positive");
+        if (n > Board.MAX_MASK_DIMENSION) {
+            throw new IllegalArgumentException("SearchBoard supports up to " + Board.MAX_MASK_DIMENSION + "x"
+                    + Board.MAX_MASK_DIMENSION + ", got " + n);
+        }
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.n = n;
+        this.levels = new byte[capacity][n * n];
+        this.hashes = new long[capacity];
+        this.emptyMasks = new long[capacity];
+    }
+
+    /** Clears the stack and loads the board as its only level. */
+    public void reset(Board board) {
+        checkDimension(board);
+        byte[] root = levels[0];
+        for (int i = 0; i < root.length; i++) {
+            root[i] = (byte) board.exponentAt(i);
+        }
+        hashes[0] = board.zobristHash();
+        emptyMasks[0] = board.emptyMask();
+        top = 0;
+    }
+
+    public int getDimension() {
+        return n;
+    }
+
+    /** Number of levels above the root. */
+    public int depth() {
+        return top;
+    }
+
+    public long zobristHash() {
+        return hashes[top];
+    }
+
+    /** See {@link Board#canonicalHash()}. */
+    public long canonicalHash() {
+        return Zobrist.canonicalHash(n, levels[top]);
+    }
+
+    public int exponentAt(int cellIndex) {
+        return levels[top][cellIndex];
+    }
+
+    public int getMaxExponent() {
+        int max = 0;
+        for (byte e : levels[top]) {
+            if (e > max) max = e;
+        }
+        return max;
+    }
+
+    /** See {@link Board#emptyMask()}. */
+    public long emptyMask() {
+        return emptyMasks[top];
+    }
+
+    public int countEmptyCells() {
+        return Long.bitCount(emptyMasks[top]);
+    }
+
+    /* =========================
+       Raw access for rules and evaluators
+       ========================= */
+
+    /** The current level's exponents. Read-only: callers must not write to it. */
+    public byte[] current() {
+        return levels[top];
+    }
+
+    /**
+     * Scratch buffer for the next level. Callers fill every cell, then call
+     * {@link #push(long, long)}; until then the stack is unchanged.
+     */
+    public byte[] next() {
+        if (top + 1 >= levels.length) {
+            throw new IllegalStateException("SearchBoard capacity exceeded: " + levels.length);
+        }
+        return levels[top + 1];
+    }
+
+    /** Makes the buffer returned by {@link #next()} the current level, with its hash and empty mask. */
+    public void push(long zobristHash, long emptyMask) {
+        next();
+        top++;
+        hashes[top] = zobristHash;
+        emptyMasks[top] = emptyMask;
+    }
+
+    /* =========================
+       Push / pop
+       ========================= */
+
+    /** Pushes a copy of the current level with one cell set to the given exponent (a spawn). */
+    public void pushTile(int cellIndex, int exponent) {
+        byte[] cur = levels[top];
+        byte[] dst = next();
+        System.arraycopy(cur, 0, dst, 0, cur.length);
+        dst[cellIndex] = (byte) exponent;
+        long mask = exponent == 0 ? emptyMasks[top] | (1L << cellIndex) : emptyMasks[top] & ~(1L << cellIndex);
+        push(hashes[top] ^ Zobrist.key(cellIndex, cur[cellIndex]) ^ Zobrist.key(cellIndex, exponent), mask);
+    }
+
+    /** Pushes the tiles of an immutable board (same dimension). */
+    public void push(Board board) {
+        checkDimension(board);
+        byte[] dst = next();
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = (byte) board.exponentAt(i);
+        }
+        push(board.zobristHash(), board.emptyMask());
+    }
+
+    public void pop() {
+        if (top == 0) throw new IllegalStateException("Cannot pop the root level");
+        top--;
+    }
+
+    /** Immutable copy of the current level (allocates; not for the hot path). */
+    public Board toBoard() {
+        return Board.wrapTrustedExponents(n, levels[top].clone(), hashes[top]);
+    }
+
+    private void checkDimension(Board board) {
+        if (board.getDimension() != n) {
+            throw new IllegalArgumentException("Expected a " + n + "x" + n + " board, got " + board.getDimension());
+        }
+    }
+}
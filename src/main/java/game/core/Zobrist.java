@@ -0,0 +1,102 @@
+package game.core;
+
+/**
+ * 64-bit Zobrist keys for (cell index, exponent) pairs.
+ * A board's hash is the XOR of the keys of its non-empty cells, so changing
+ * one tile updates it with two XORs. Empty cells contribute nothing.
+ *
+ * Keys are fixed (seeded), so hashes are stable across runs.
+ */
+public final class Zobrist {
+
+    // table covers boards up to 8x8 and tiles up to 2^31; anything larger is mixed on the fly
+    private static final int TABLE_CELLS = 64;
+    private static final int TABLE_EXPONENTS = 32;
+
+    private static final long SEED = 0x2048_2048_2048_2048L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final long[] KEYS = new long[TABLE_CELLS * TABLE_EXPONENTS];
+
+    static {
+        for (int cell = 0; cell < TABLE_CELLS; cell++) {
+            for (int e = 1; e < TABLE_EXPONENTS; e++) {
+                KEYS[cell * TABLE_EXPONENTS + e] = mixedKey(cell, e);
+            }
+        }
+    }
+
+    private Zobrist() {}
+
+    public static long key(int cellIndex, int exponent) {
+        if (exponent == 0) return 0L;
+        if (cellIndex < TABLE_CELLS && exponent < TABLE_EXPONENTS) {
+            return KEYS[cellIndex * TABLE_EXPONENTS + exponent];
+        }
+        return mixedKey(cellIndex, exponent);
+    }
+
+    /** Full hash of a flat exponent array (r * n + c). */
+    public static long hash(byte[] exponents) {
+        long h = 0L;
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i] != 0) h ^= key(i, exponents[i]);
+        }
+        return h;
+    }
+
+    /** Full hash of a packed 4x4 board; equals hash() of the same board's exponents. */
+    public static long hash(long bits) {
+        long h = 0L;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            int e = BitBoard.exponent(bits, i);
+            if (e != 0) h ^= KEYS[i * TABLE_EXPONENTS + e];
+        }
+        return h;
+    }
+
+    /**
+     * Smallest hash over the 8 rotations/reflections of an NxN exponent array,
+     * folded in one pass over the cells.
+     */
+    public static long canonicalHash(int n, byte[] exponents) {
+        long h0 = 0, h1 = 0, h2 = 0, h3 = 0, h4 = 0, h5 = 0, h6 = 0, h7 = 0;
+        int m = n - 1;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int e = exponents[r * n + c];
+                if (e == 0) continue;
+                h0 ^= key(r * n + c, e);
+                h1 ^= key(r * n + (m - c), e);
+                h2 ^= key((m - r) * n + c, e);
+                h3 ^= key((m - r) * n + (m - c), e);
+                h4 ^= key(c * n + r, e);
+                h5 ^= key(c * n + (m - r), e);
+                h6 ^= key((m - c) * n + r, e);
+                h7 ^= key((m - c) * n + (m - r), e);
+            }
+        }
+        return Math.min(Math.min(Math.min(h0, h1), Math.min(h2, h3)),
+                Math.min(Math.min(h4, h5), Math.min(h6, h7)));
+    }
+
+    /** XOR that turns the hash of packed board {@code before} into the hash of {@code after}. */
+    public static long delta(long before, long after) {
+        long h = 0L;
+        long diff = before ^ after;
+        while (diff != 0) {
+            int i = Long.numberOfTrailingZeros(diff) >>> 2;
+            h ^= key(i, BitBoard.exponent(before, i)) ^ key(i, BitBoard.exponent(after, i));
+            diff &= ~(0xFL << (4 * i));
+        }
+        return h;
+    }
+
+    // SplitMix64 finalizer over (cell, exponent)
+    private static long mixedKey(int cellIndex, int exponent) {
+        long z = SEED + GOLDEN_GAMMA * (((long) cellIndex << 8) + exponent + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,8 +1,12 @@
 package game.rules;
 
+import game.core.BitBoard;
 import game.core.Board;
 import game.core.Move;
 import game.core.MoveResult;
+import game.core.PackedRows;
+import game.core.SearchBoard;
+import game.core.Zobrist;
 
 import java.util.Arrays;
 import java.util.EnumSet;
@@ -11,19 +15,19 @@ public class ClassicRules2048 implements Rules {
 
     public ClassicRules2048() {}
 
-    // Read board as if transformed into LEFT-space
+    // Read board exponents as if transformed into LEFT-space
     private int getLeftSpace(Board board, Move move, int i, int j) {
         int n = board.getDimension();
         return switch (move) {
-            case LEFT  -> board.get(i, j);
-            case RIGHT -> board.get(i, n - 1 - j);
-            case UP    -> board.get(j, i);
-            case DOWN  -> board.get(n - 1 - j, i);
+            case LEFT  -> board.getExponent(i, j);
+            case RIGHT -> board.getExponent(i, n - 1 - j);
+            case UP    -> board.getExponent(j, i);
+            case DOWN  -> board.getExponent(n - 1 - j, i);
         };
     }
 
-    // Write a LEFT-space cell back into final board orientation (flat output)
-    private void setFromLeftSpace(int[] out, int n, Move move, int i, int j, int value) {
+    // Write a LEFT-space exponent back into final board orientation (flat output)
+    private void setFromLeftSpace(byte[] out, int n, Move move, int i, int j, byte value) {
         switch (move) {
             case LEFT  -> out[i * n + j] = value;
             case RIGHT -> out[i * n + (n - 1 - j)] = value;
@@ -34,68 +38,130 @@ public class ClassicRules2048 implements Rules {
 
     @Override
     public boolean isGameOver(Board board) {
-        return getLegalMoves(board).isEmpty();
+        return legalMoveMask(board) == 0;
     }
 
     @Override
     public MoveResult makeMove(Board board, Move move) {
+        if (BitBoard.supports(board)) {
+            return makeMovePacked(board, move);
+        }
+        if (rowPacked(board)) {
+            return makeMoveRows(board, move);
+        }
+        return makeMoveCells(board, move);
+    }
+
+    // Per-cell reference path: any size, any tile value.
+    MoveResult makeMoveCells(Board board, Move move) {
         int n = board.getDimension();
         int scoreGained = 0;
 
-        // Final board cells (flat). This is already in correct orientation.
-        int[] out = new int[n * n];
+        // Final board exponents (flat). This is already in correct orientation.
+        byte[] out = new byte[n * n];
 
         // Scratch row in LEFT-space
-        int[] rowOut = new int[n];
+        byte[] rowOut = new byte[n];
 
         for (int i = 0; i < n; i++) {
-            Arrays.fill(rowOut, 0);
+            Arrays.fill(rowOut, (byte) 0);
 
             int write = 0;
             int lastMergedAt = -1;
 
             for (int j = 0; j < n; j++) {
-                int v = getLeftSpace(board, move, i, j);
-                if (v == 0) continue;
+                int e = getLeftSpace(board, move, i, j);
+                if (e == 0) continue;
 
                 if (rowOut[write] == 0) {
-                    rowOut[write] = v;
-                } else if (rowOut[write] == v && lastMergedAt != write) {
-                    rowOut[write] = v * 2;
-                    scoreGained += rowOut[write];
+                    rowOut[write] = (byte) e;
+                } else if (rowOut[write] == e && lastMergedAt != write) {
+                    rowOut[write] = (byte) (e + 1);
+                    scoreGained += 1 << (e + 1);
                     lastMergedAt = write;
                     write++;
                 } else {
                     write++;
-                    rowOut[write] = v;
+                    rowOut[write] = (byte) e;
                 }
             }
 
             // write LEFT-space row into final board orientation
             for (int j = 0; j < n; j++) {
-                int v = rowOut[j];
-                if (v != 0) {
-                    setFromLeftSpace(out, n, move, i, j, v);
+                byte e = rowOut[j];
+                if (e != 0) {
+                    setFromLeftSpace(out, n, move, i, j, e);
                 }
             }
         }
 
-        return new MoveResult(Board.wrapTrustedCells(n, out), scoreGained);
+        // Zobrist update over the cells that changed
+        long hash = board.zobristHash();
+        for (int i = 0; i < out.length; i++) {
+            int before = board.exponentAt(i);
+            if (before != out[i]) {
+                hash ^= Zobrist.key(i, before) ^ Zobrist.key(i, out[i]);
+            }
+        }
+
+        return new MoveResult(Board.wrapTrustedExponents(n, out, hash), scoreGained);
     }
 
     @Override
     public EnumSet<Move> getLegalMoves(Board board) {
         EnumSet<Move> legalMoves = EnumSet.noneOf(Move.class);
+        int mask = legalMoveMask(board);
         for (Move move : Move.values()) {
-            if (canMove(board, move)) {
+            if ((mask & move.bit()) != 0) {
                 legalMoves.add(move);
             }
         }
         return legalMoves;
     }
 
+    @Override
+    public int legalMoveMask(Board board) {
+        if (BitBoard.supports(board)) {
+            return legalMoveMask(BitBoard.pack(board));
+        }
+        if (rowPacked(board)) {
+            return legalMoveMaskRows(board);
+        }
+        return Rules.super.legalMoveMask(board);
+    }
+
+    @Override
+    public int afterstates(Board board, Board[] out) {
+        if (rowPacked(board)) {
+            return afterstatesRows(board, out);
+        }
+        if (!BitBoard.supports(board)) {
+            return Rules.super.afterstates(board, out);
+        }
+
+        long bitsBefore = BitBoard.pack(board);
+        long[] packedOut = new long[4];
+        int mask = afterstates(bitsBefore, packedOut);
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            long hash = board.zobristHash() ^ Zobrist.delta(bitsBefore, packedOut[i]);
+            out[i] = BitBoard.toBoard(packedOut[i], hash);
+        }
+        return mask;
+    }
+
     @Override
     public boolean canMove(Board board, Move move) {
+        if (BitBoard.supports(board)) {
+            return canMove(BitBoard.pack(board), move);
+        }
+        if (rowPacked(board)) {
+            return (legalMoveMaskRows(board) & move.bit()) != 0;
+        }
+        return canMoveCells(board, move);
+    }
+
+    boolean canMoveCells(Board board, Move move) {
         int n = board.getDimension();
 
         for (int i = 0; i < n; i++) {
@@ -118,4 +184,398 @@ public class ClassicRules2048 implements Rules {
 
         return false;
     }
-}
\ No newline at end of file
+
+    /* =========================
+       Search stack path (see SearchBoard): slides exponents straight into the
+       next level's buffer, same merge rule as makeMoveCells
+       ========================= */
+
+    @Override
+    public boolean pushMove(SearchBoard board, Move move) {
+        int n = board.getDimension();
+        byte[] src = board.current();
+        byte[] dst = board.next();
+        RowTable table = RowTable.supports(n) ? RowTable.forLength(n) : null;
+
+        // walk each line in LEFT-space: first cell at start, then step by step
+        int step = switch (move) {
+            case LEFT -> 1;
+            case RIGHT -> -1;
+            case UP -> n;
+            case DOWN -> -n;
+        };
+
+        for (int i = 0; i < n; i++) {
+            int start = switch (move) {
+                case LEFT -> i * n;
+                case RIGHT -> i * n + n - 1;
+                case UP -> i;
+                case DOWN -> (n - 1) * n + i;
+            };
+            if (table == null || !slideLineTable(table, src, dst, start, step, n)) {
+                slideLineCells(src, dst, start, step, n);
+            }
+        }
+
+        long hash = board.zobristHash();
+        long emptyMask = 0L;
+        boolean changed = false;
+        for (int i = 0; i < dst.length; i++) {
+            if (dst[i] == 0) emptyMask |= 1L << i;
+            if (src[i] != dst[i]) {
+                changed = true;
+                hash ^= Zobrist.key(i, src[i]) ^ Zobrist.key(i, dst[i]);
+            }
+        }
+
+        if (changed) board.push(hash, emptyMask);
+        return changed;
+    }
+
+    // Packs the line, slides it through the row table and unpacks it into dst.
+    // Returns false (writing nothing) if a tile is too large for the table.
+    private static boolean slideLineTable(RowTable table, byte[] src, byte[] dst, int start, int step, int n) {
+        int line = 0;
+        for (int j = 0, at = start; j < n; j++, at += step) {
+            int e = src[at];
+            if (e >= BitBoard.MAX_EXPONENT) return false;
+            line |= e << (4 * j);
+        }
+        int slid = table.left(line);
+        for (int j = 0, at = start; j < n; j++, at += step) {
+            dst[at] = (byte) PackedRows.exponent(slid, j);
+        }
+        return true;
+    }
+
+    private static void slideLineCells(byte[] src, byte[] dst, int start, int step, int n) {
+        int write = start;
+        int last = 0;
+        for (int j = 0, at = start; j < n; j++, at += step) {
+            int e = src[at];
+            if (e == 0) continue;
+
+            if (last == e) {
+                dst[write - step] = (byte) (e + 1);
+                last = 0;
+            } else {
+                dst[write] = (byte) e;
+                write += step;
+                last = e;
+            }
+        }
+        for (int end = start + n * step; write != end; write += step) {
+            dst[write] = 0;
+        }
+    }
+
+    /* =========================
+       Row-packed path for other sizes (see PackedRows, RowTable)
+       ========================= */
+
+    private static boolean rowPacked(Board board) {
+        int n = board.getDimension();
+        return n != BitBoard.SIZE && RowTable.supports(n) && PackedRows.supports(board);
+    }
+
+    private MoveResult makeMoveRows(Board board, Move move) {
+        int n = board.getDimension();
+        RowTable table = RowTable.forLength(n);
+
+        boolean vertical = move == Move.UP || move == Move.DOWN;
+        boolean towardStart = move == Move.LEFT || move == Move.UP;
+        int[] lines = vertical ? PackedRows.columns(board) : PackedRows.rows(board);
+
+        int scoreGained = 0;
+        boolean changed = false;
+        long hash = board.zobristHash();
+        for (int i = 0; i < n; i++) {
+            int before = lines[i];
+            int after = towardStart ? table.left(before) : table.right(before);
+            if (after != before) {
+                changed = true;
+                scoreGained += table.score(before, after);
+                hash ^= lineDelta(n, i, vertical, before, after);
+                lines[i] = after;
+            }
+        }
+
+        if (!changed) {
+            return new MoveResult(board, 0);
+        }
+        Board out = vertical ? PackedRows.fromColumns(n, lines, hash) : PackedRows.fromRows(n, lines, hash);
+        return new MoveResult(out, scoreGained);
+    }
+
+    private int legalMoveMaskRows(Board board) {
+        int n = board.getDimension();
+        RowTable table = RowTable.forLength(n);
+        int[] rows = PackedRows.rows(board);
+        int[] cols = PackedRows.columns(board);
+
+        int mask = 0;
+        for (int i = 0; i < n; i++) {
+            if (table.left(rows[i]) != rows[i]) mask |= Move.LEFT.bit();
+            if (table.right(rows[i]) != rows[i]) mask |= Move.RIGHT.bit();
+            if (table.left(cols[i]) != cols[i]) mask |= Move.UP.bit();
+            if (table.right(cols[i]) != cols[i]) mask |= Move.DOWN.bit();
+        }
+        return mask;
+    }
+
+    private int afterstatesRows(Board board, Board[] out) {
+        int n = board.getDimension();
+        RowTable table = RowTable.forLength(n);
+        int[] rows = PackedRows.rows(board);
+        int[] cols = PackedRows.columns(board);
+        int[] moved = new int[n];
+
+        int mask = 0;
+        long hash = board.zobristHash();
+        if (slideLines(table, rows, true, moved)) {
+            out[Move.LEFT.ordinal()] = PackedRows.fromRows(n, moved, hash ^ linesDelta(n, false, rows, moved));
+            mask |= Move.LEFT.bit();
+        }
+        if (slideLines(table, rows, false, moved)) {
+            out[Move.RIGHT.ordinal()] = PackedRows.fromRows(n, moved, hash ^ linesDelta(n, false, rows, moved));
+            mask |= Move.RIGHT.bit();
+        }
+        if (slideLines(table, cols, true, moved)) {
+            out[Move.UP.ordinal()] = PackedRows.fromColumns(n, moved, hash ^ linesDelta(n, true, cols, moved));
+            mask |= Move.UP.bit();
+        }
+        if (slideLines(table, cols, false, moved)) {
+            out[Move.DOWN.ordinal()] = PackedRows.fromColumns(n, moved, hash ^ linesDelta(n, true, cols, moved));
+            mask |= Move.DOWN.bit();
+        }
+        return mask;
+    }
+
+    private static long linesDelta(int n, boolean vertical, int[] before, int[] after) {
+        long delta = 0L;
+        for (int i = 0; i < n; i++) {
+            if (before[i] != after[i]) delta ^= lineDelta(n, i, vertical, before[i], after[i]);
+        }
+        return delta;
+    }
+
+    // Zobrist XOR for line i (a row, or a column if vertical) changing from before to after
+    private static long lineDelta(int n, int i, boolean vertical, int before, int after) {
+        long delta = 0L;
+        for (int j = 0; j < n; j++) {
+            int eb = PackedRows.exponent(before, j);
+            int ea = PackedRows.exponent(after, j);
+            if (eb != ea) {
+                int cell = vertical ? j * n + i : i * n + j;
+                delta ^= Zobrist.key(cell, eb) ^ Zobrist.key(cell, ea);
+            }
+        }
+        return delta;
+    }
+
+    // Slides every line into out; returns true if any line changed.
+    private static boolean slideLines(RowTable table, int[] lines, boolean towardStart, int[] out) {
+        boolean changed = false;
+        for (int i = 0; i < lines.length; i++) {
+            out[i] = towardStart ? table.left(lines[i]) : table.right(lines[i]);
+            changed |= out[i] != lines[i];
+        }
+        return changed;
+    }
+
+    /* =========================
+       Packed 4x4 path (see BitBoard)
+       ========================= */
+
+    // Every possible 16-bit row, slid left / right, and the score that slide gains.
+    // Built once; a full move is then 4 lookups (plus a transpose for UP/DOWN).
+    private static final char[] ROW_LEFT = new char[1 << 16];
+    private static final char[] ROW_RIGHT = new char[1 << 16];
+    private static final int[] SCORE_LEFT = new int[1 << 16];
+    private static final int[] SCORE_RIGHT = new int[1 << 16];
+
+    // bit 0: the row changes when slid left, bit 1: when slid right
+    private static final byte[] ROW_CAN_SLIDE = new byte[1 << 16];
+
+    // bit 0: sliding the row left merges two 2^15 tiles, bit 1: sliding it right.
+    // 2^16 does not fit a cell, so packed boards leave those moves out: they are
+    // not in legalMoveMask or afterstates, and makeMove returns the board as is.
+    // Players only search packed when no such merge is reachable (BitBoard#supports(Board, int)).
+    private static final byte[] ROW_OVERFLOWS = new byte[1 << 16];
+    private static final long LOW_BITS = 0x1111_1111_1111_1111L;
+
+    static {
+        for (int row = 0; row < (1 << 16); row++) {
+            int rev = BitBoard.reverseRow(row);
+            ROW_LEFT[row] = (char) slideRowLeft(row);
+            ROW_RIGHT[row] = (char) BitBoard.reverseRow(slideRowLeft(rev));
+            SCORE_LEFT[row] = rowScore(row);
+            SCORE_RIGHT[row] = rowScore(rev);
+            ROW_CAN_SLIDE[row] = (byte) ((ROW_LEFT[row] != row ? 1 : 0) | (ROW_RIGHT[row] != row ? 2 : 0));
+            ROW_OVERFLOWS[row] = (byte) ((mergesMaxTiles(row) ? 1 : 0) | (mergesMaxTiles(rev) ? 2 : 0));
+        }
+    }
+
+    private MoveResult makeMovePacked(Board board, Move move) {
+        long bits = BitBoard.pack(board);
+        long after = makeMove(bits, move);
+        if (after == bits) {
+            return new MoveResult(board, 0);
+        }
+        long hash = board.zobristHash() ^ Zobrist.delta(bits, after);
+        return new MoveResult(BitBoard.toBoard(after, hash), moveScore(bits, move));
+    }
+
+    @Override
+    public long makeMove(long board, Move move) {
+        if ((overflowMask(board) & move.bit()) != 0) return board;
+        return switch (move) {
+            case LEFT  -> slideRows(board, ROW_LEFT);
+            case RIGHT -> slideRows(board, ROW_RIGHT);
+            case UP    -> BitBoard.transpose(slideRows(BitBoard.transpose(board), ROW_LEFT));
+            case DOWN  -> BitBoard.transpose(slideRows(BitBoard.transpose(board), ROW_RIGHT));
+        };
+    }
+
+    @Override
+    public boolean canMove(long board, Move move) {
+        return (legalMoveMask(board) & move.bit()) != 0;
+    }
+
+    @Override
+    public boolean isGameOver(long board) {
+        return legalMoveMask(board) == 0;
+    }
+
+    @Override
+    public int legalMoveMask(long board) {
+        // rows give LEFT/RIGHT, rows of the transpose give UP/DOWN (Move bit order)
+        int horizontal = canSlideRows(board);
+        int vertical = canSlideRows(BitBoard.transpose(board));
+        return (horizontal | (vertical << 2)) & ~overflowMask(board);
+    }
+
+    @Override
+    public int afterstates(long board, long[] out) {
+        long t = BitBoard.transpose(board);
+        int mask = 0;
+
+        long left = slideRows(board, ROW_LEFT);
+        if (left != board) { out[0] = left; mask |= 1; }
+
+        long right = slideRows(board, ROW_RIGHT);
+        if (right != board) { out[1] = right; mask |= 2; }
+
+        long up = slideRows(t, ROW_LEFT);
+        if (up != t) { out[2] = BitBoard.transpose(up); mask |= 4; }
+
+        long down = slideRows(t, ROW_RIGHT);
+        if (down != t) { out[3] = BitBoard.transpose(down); mask |= 8; }
+
+        return mask & ~overflowMask(board);
+    }
+
+    // Moves that would merge two 2^15 tiles (Move bit order); 0 unless a cell holds 2^15.
+    private static int overflowMask(long board) {
+        if ((board & board >>> 1 & board >>> 2 & board >>> 3 & LOW_BITS) == 0) return 0;
+        long t = BitBoard.transpose(board);
+        return rowOverflows(board) | rowOverflows(t) << 2;
+    }
+
+    private static int rowOverflows(long board) {
+        return ROW_OVERFLOWS[(int) (board & 0xFFFF)]
+                | ROW_OVERFLOWS[(int) ((board >>> 16) & 0xFFFF)]
+                | ROW_OVERFLOWS[(int) ((board >>> 32) & 0xFFFF)]
+                | ROW_OVERFLOWS[(int) (board >>> 48)];
+    }
+
+    /** Score gained by applying the move to a packed board. */
+    public int moveScore(long board, Move move) {
+        return switch (move) {
+            case LEFT  -> scoreRows(board, SCORE_LEFT);
+            case RIGHT -> scoreRows(board, SCORE_RIGHT);
+            case UP    -> scoreRows(BitBoard.transpose(board), SCORE_LEFT);
+            case DOWN  -> scoreRows(BitBoard.transpose(board), SCORE_RIGHT);
+        };
+    }
+
+    private static long slideRows(long board, char[] table) {
+        return (long) table[(int) (board & 0xFFFF)]
+                | (long) table[(int) ((board >>> 16) & 0xFFFF)] << 16
+                | (long) table[(int) ((board >>> 32) & 0xFFFF)] << 32
+                | (long) table[(int) (board >>> 48)] << 48;
+    }
+
+    private static int canSlideRows(long board) {
+        return ROW_CAN_SLIDE[(int) (board & 0xFFFF)]
+                | ROW_CAN_SLIDE[(int) ((board >>> 16) & 0xFFFF)]
+                | ROW_CAN_SLIDE[(int) ((board >>> 32) & 0xFFFF)]
+                | ROW_CAN_SLIDE[(int) (board >>> 48)];
+    }
+
+    private static int scoreRows(long board, int[] table) {
+        return table[(int) (board & 0xFFFF)]
+                + table[(int) ((board >>> 16) & 0xFFFF)]
+                + table[(int) ((board >>> 32) & 0xFFFF)]
+                + table[(int) (board >>> 48)];
+    }
+
+    // Same merge rule as the array path, on 4 exponent nibbles (column 0 lowest).
+    // A 2^15 merge stays 2^15 here, but ROW_OVERFLOWS keeps such rows from being
+    // played. Only used to build the tables.
+    private static int slideRowLeft(int row) {
+        int out = 0;
+        int write = 0;
+        int last = 0;
+
+        for (int j = 0; j < BitBoard.SIZE; j++) {
+            int e = (row >>> (4 * j)) & 0xF;
+            if (e == 0) continue;
+
+            if (last == e) {
+                // bump the previous nibble in place
+                if (e < BitBoard.MAX_EXPONENT) out += 1 << (4 * (write - 1));
+                last = 0;
+            } else {
+                out |= e << (4 * write);
+                write++;
+                last = e;
+            }
+        }
+        return out;
+    }
+
+    private static boolean mergesMaxTiles(int row) {
+        int last = 0;
+        for (int j = 0; j < BitBoard.SIZE; j++) {
+            int e = (row >>> (4 * j)) & 0xF;
+            if (e == 0) continue;
+
+            if (last == e) {
+                if (e == BitBoard.MAX_EXPONENT) return true;
+                last = 0;
+            } else {
+                last = e;
+            }
+        }
+        return false;
+    }
+
+    private static int rowScore(int row) {
+        int score = 0;
+        int last = 0;
+
+        for (int j = 0; j < BitBoard.SIZE; j++) {
+            int e = (row >>> (4 * j)) & 0xF;
+            if (e == 0) continue;
+
+            if (last == e) {
+                score += 1 << (e + 1);
+                last = 0;
+            } else {
+                last = e;
+            }
+        }
+        return score;
+    }
+}
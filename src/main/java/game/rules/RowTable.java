@@ -0,0 +1,97 @@
+package game.rules;
+
+import game.core.BitBoard;
+import game.core.PackedRows;
+
+/**
+ * Precomputed LEFT slides for every packed line of a given length
+ * (see PackedRows). RIGHT slides reuse the table on the reversed line.
+ *
+ * Tables are built lazily per length on first use: 2^(4 * length) entries,
+ * i.e. 4 MB for length 5 and 64 MB for length 6.
+ */
+final class RowTable {
+
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 6;
+
+    private static final RowTable[] BY_LENGTH = new RowTable[MAX_LENGTH + 1];
+
+    private final int length;
+    private final int[] left;
+
+    private RowTable(int length) {
+        this.length = length;
+        this.left = new int[1 << (4 * length)];
+        for (int line = 0; line < left.length; line++) {
+            left[line] = slideLeft(line, length);
+        }
+    }
+
+    static boolean supports(int length) {
+        return length >= MIN_LENGTH && length <= MAX_LENGTH;
+    }
+
+    static synchronized RowTable forLength(int length) {
+        if (!supports(length)) {
+            throw new IllegalArgumentException("No row table for length " + length);
+        }
+        RowTable table = BY_LENGTH[length];
+        if (table == null) {
+            table = new RowTable(length);
+            BY_LENGTH[length] = table;
+        }
+        return table;
+    }
+
+    int left(int line) {
+        return left[line];
+    }
+
+    int right(int line) {
+        return PackedRows.reverse(left[PackedRows.reverse(line, length)], length);
+    }
+
+    /**
+     * Score gained by sliding {@code before} into {@code after}.
+     * Each tile 2^e carries (e - 1) * 2^e "potential"; a merge of two 2^(e-1)
+     * tiles raises the potential by exactly 2^e, the merged tile's value.
+     */
+    int score(int before, int after) {
+        return potential(after) - potential(before);
+    }
+
+    private int potential(int line) {
+        int p = 0;
+        for (int i = 0; i < length; i++) {
+            int e = PackedRows.exponent(line, i);
+            if (e > 1) p += (e - 1) << e;
+        }
+        return p;
+    }
+
+    // Same merge rule as ClassicRules2048's array path, on exponent nibbles.
+    // Callers only look up lines with every exponent below 2^15 (PackedRows#supports
+    // and the per-line check of the stack path), so the cap on a 2^15 merge is
+    // never reached; lines holding 2^15 go through the per-cell path instead.
+    private static int slideLeft(int line, int length) {
+        int out = 0;
+        int write = 0;
+        int last = 0;
+
+        for (int j = 0; j < length; j++) {
+            int e = (line >>> (4 * j)) & 0xF;
+            if (e == 0) continue;
+
+            if (last == e) {
+                if (e < BitBoard.MAX_EXPONENT) out += 1 << (4 * (write - 1));
+                last = 0;
+            } else {
+                out |= e << (4 * write);
+                write++;
+                last = e;
+            }
+        }
+        return out;
+    }
+}
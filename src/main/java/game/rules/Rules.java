@@ -1,8 +1,10 @@
 package game.rules;
 
+import game.core.BitBoard;
 import game.core.Board;
 import game.core.Move;
 import game.core.MoveResult;
+import game.core.SearchBoard;
 
 import java.util.EnumSet;
 
@@ -17,4 +19,66 @@ public interface Rules {
     EnumSet<Move> getLegalMoves(Board board);
 
     boolean canMove(Board board, Move move);
+
+    // Legal moves as a bit mask (see Move#bit); 0 means game over.
+    default int legalMoveMask(Board board) {
+        int mask = 0;
+        for (Move move : Move.values()) {
+            if (canMove(board, move)) mask |= move.bit();
+        }
+        return mask;
+    }
+
+    // Fused legal moves + results: fills out[move.ordinal()] for every legal move
+    // (other slots are left untouched) and returns the legal-move mask.
+    default int afterstates(Board board, Board[] out) {
+        int mask = 0;
+        for (Move move : Move.values()) {
+            if (!canMove(board, move)) continue;
+            out[move.ordinal()] = makeMove(board, move).board();
+            mask |= move.bit();
+        }
+        return mask;
+    }
+
+    // Search-only: applies the move to the top of the stack and pushes the result.
+    // Returns false (and pushes nothing) if the move changes nothing.
+    // The default goes through Board; rules should override it to avoid allocating.
+    default boolean pushMove(SearchBoard board, Move move) {
+        Board before = board.toBoard();
+        Board after = makeMove(before, move).board();
+        if (after.equals(before)) return false;
+        board.push(after);
+        return true;
+    }
+
+    // Packed 4x4 boards (see BitBoard). The defaults round-trip through Board;
+    // rules with a native packed implementation should override them.
+
+    default long makeMove(long board, Move move) {
+        return BitBoard.pack(makeMove(BitBoard.toBoard(board), move).board());
+    }
+
+    default boolean canMove(long board, Move move) {
+        return canMove(BitBoard.toBoard(board), move);
+    }
+
+    default boolean isGameOver(long board) {
+        return isGameOver(BitBoard.toBoard(board));
+    }
+
+    default int legalMoveMask(long board) {
+        return legalMoveMask(BitBoard.toBoard(board));
+    }
+
+    default int afterstates(long board, long[] out) {
+        int mask = 0;
+        for (Move move : Move.values()) {
+            long after = makeMove(board, move);
+            if (after == board) continue;
+            out[move.ordinal()] = after;
+            mask |= move.bit();
+        }
+        return mask;
+    }
 }
@@ -185,8 +185,8 @@ public final class GameSession {
                             ? 0.0
                             : 100.0 * st.cacheHits() / (st.cacheHits() + st.cacheMisses());
 
-                    stats2 = String.format("Nodes %d | Eval %d | Cache hit %.1f%%",
-                            st.nodes(), st.evalCalls(), hitRate);
+                    stats2 = String.format("Depth %d | Nodes %d | Eval %d | Cache hit %.1f%% | Repl %d",
+                            ep.lastDepth(), st.nodes(), st.evalCalls(), hitRate, st.cacheReplacements());
 
                     ep.resetStats();
                 }
@@ -262,7 +262,7 @@ public final class GameSession {
     }
 
     private boolean isGameOver() {
-        return config.rules().isGameOver(state);
+        return config.rules().legalMoveMask(state) == 0;
     }
 
     private void step(Move move) {
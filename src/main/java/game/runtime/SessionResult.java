@@ -7,5 +7,7 @@ public record SessionResult(
         int maxTile,
         boolean reached2048,
         long wallTimeNanos,
+        // the game thread's CPU time only: players searching on a pool (--ai parallel, rollout)
+        // spend most of theirs on other threads, so compare wall time for those; -1 if unavailable
         long cpuTimeNanos
 ) {}
@@ -1,6 +1,8 @@
 package game.spawn;
 
+import game.core.BitBoard;
 import game.core.Board;
+import game.util.Bits;
 import game.util.Rng;
 
 import java.util.ArrayList;
@@ -23,8 +25,7 @@ public class ClassicSpawner2048 implements Spawner {
 
     @Override
     public SpawnDistribution distribution(Board board) {
-        int[] emptyCells = board.getEmptyCells();
-        int n = emptyCells.length;
+        int n = board.countEmptyCells();
 
         if (n == 0) {
             throw new IllegalStateException("No empty cells");
@@ -35,7 +36,8 @@ public class ClassicSpawner2048 implements Spawner {
 
         double p4 = 1.0 - p2;
 
-        for (int cell : emptyCells) {
+        for (int k = 0; k < n; k++) {
+            int cell = board.emptyCellAt(k);
             outcomes.add(new SpawnDistribution.Outcome(
                     board.placeTile(cell, 2),
                     pCell * p2
@@ -52,16 +54,30 @@ public class ClassicSpawner2048 implements Spawner {
 
     @Override
     public Board sample(Board board, Rng rng) {
-        int[] emptyCells = board.getEmptyCells();
-        int n = emptyCells.length;
+        int n = board.countEmptyCells();
 
         if (n == 0) {
             throw new IllegalStateException("No empty cells");
         }
 
-        int cell = emptyCells[rng.nextInt(n)];
+        int cell = board.emptyCellAt(rng.nextInt(n));
         int value = (rng.nextDouble() < p2) ? 2 : 4;
 
         return board.placeTile(cell, value);
     }
-}
\ No newline at end of file
+
+    @Override
+    public long sample(long board, Rng rng) {
+        int n = BitBoard.countEmpty(board);
+
+        if (n == 0) {
+            throw new IllegalStateException("No empty cells");
+        }
+
+        // same draws as sample(Board, Rng): pick the k-th empty cell in index order
+        int cell = Bits.nthSetBit(BitBoard.emptyMask(board), rng.nextInt(n));
+        int exponent = (rng.nextDouble() < p2) ? 1 : 2;
+
+        return BitBoard.place(board, cell, exponent);
+    }
+}
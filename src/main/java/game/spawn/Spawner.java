@@ -1,5 +1,6 @@
 package game.spawn;
 
+import game.core.BitBoard;
 import game.core.Board;
 import game.util.Rng;
 
@@ -7,4 +8,9 @@ public interface Spawner {
     SpawnDistribution distribution(Board board); // for AI/search
     Board sample(Board board, Rng rng);          // runtime only
     double getP2();
+
+    // packed 4x4 board (see BitBoard); must consume rng exactly like sample(Board, Rng)
+    default long sample(long board, Rng rng) {
+        return BitBoard.pack(sample(BitBoard.toBoard(board), rng));
+    }
 }
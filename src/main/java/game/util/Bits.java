@@ -0,0 +1,18 @@
+package game.util;
+
+/** Helpers for cell bitmasks (bit i = cell i). */
+public final class Bits {
+
+    private Bits() {}
+
+    /** Index of the k-th set bit (0-based, lowest bit first). */
+    public static int nthSetBit(long mask, int k) {
+        for (int i = 0; i < k; i++) {
+            mask &= mask - 1;
+        }
+        if (mask == 0) {
+            throw new IndexOutOfBoundsException("no set bit #" + k);
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+}
@@ -17,6 +17,11 @@ public final class Rng {
         this.state = internalState & MASK;
     }
 
+    /** Restarts the stream as if freshly created from the seed, without allocating. */
+    public void reseed(long seed) {
+        this.state = (seed ^ MULT) & MASK;
+    }
+
     public Rng copy() {
         return new Rng(this.state, true);
     }
@@ -0,0 +1,64 @@
+package ai;
+
+import ai.eval.TableEvaluator;
+import game.core.Board;
+import game.core.Move;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.runtime.GameSession;
+import game.runtime.SessionResult;
+import game.spawn.ClassicSpawner2048;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveDepthPlayerTest {
+
+    @Test
+    void policy_firstMatchingRuleWins_elseFallback() {
+        DepthPolicy policy = DepthPolicy.parse("empty<=2:4, distinct>=3:3");
+        assertEquals("empty<=2:4,distinct>=3:3", policy.toString());
+        assertEquals(5, policy.maxDepth(5));
+
+        Board open = new Board(4).placeTile(0, 2).placeTile(1, 4);
+        Board varied = open.placeTile(2, 8);
+        Board crowded = Board.wrapTrustedCells(4, new int[]{
+                2, 4, 2, 4,
+                4, 2, 4, 2,
+                2, 4, 2, 4,
+                4, 2, 0, 0});
+
+        assertEquals(1, policy.depthFor(open, 1));
+        assertEquals(3, policy.depthFor(varied, 1));
+        assertEquals(4, policy.depthFor(crowded, 1));
+        assertEquals(2, DepthPolicy.parse("*:2").depthFor(crowded, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> DepthPolicy.parse("tiles<=3:2"));
+        assertThrows(IllegalArgumentException.class, () -> DepthPolicy.parse("empty<=3"));
+        assertThrows(IllegalArgumentException.class, () -> DepthPolicy.parse("empty=3:2"));
+    }
+
+    @Test
+    void player_searchesEachMoveAtThePolicyDepth() {
+        GameConfig config = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+        DepthPolicy policy = DepthPolicy.parse("empty<=4:2");
+        AdaptiveDepthPlayer adaptive = new AdaptiveDepthPlayer(config, new TableEvaluator(), policy, 1, true, 4);
+        ExpectimaxPlayer d1 = new ExpectimaxPlayer(config, new TableEvaluator(), 1, true);
+        ExpectimaxPlayer d2 = new ExpectimaxPlayer(config, new TableEvaluator(), 2, true);
+
+        Player both = board -> {
+            int depth = board.countEmptyCells() <= 4 ? 2 : 1;
+            Move expected = (depth == 2 ? d2 : d1).chooseMove(board);
+            assertEquals(expected, adaptive.chooseMove(board));
+            assertEquals(depth, adaptive.lastDepth());
+            return expected;
+        };
+        SessionResult r = new GameSession(config, 3).runGame(both);
+
+        long[] byDepth = adaptive.getStats().movesByDepth();
+        assertTrue(byDepth[1] > 0 && byDepth[2] > 0, Arrays.toString(byDepth));
+        assertEquals(r.steps(), byDepth[1] + byDepth[2]);
+    }
+}
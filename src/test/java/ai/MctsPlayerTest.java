@@ -0,0 +1,52 @@
+package ai;
+
+import ai.eval.TableEvaluator;
+import game.core.Board;
+import game.core.Move;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.spawn.ClassicSpawner2048;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsPlayerTest {
+
+    private static final GameConfig CONFIG = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+
+    private static final Board OPEN = new Board(4).placeTile(0, 4).placeTile(1, 2).placeTile(6, 2);
+
+    @Test
+    void keepsTheSubtreeOfTheSpawnThatHappened() {
+        MctsPlayer mcts = new MctsPlayer(CONFIG, new TableEvaluator(), 2000, 0, 1 << 16);
+
+        Move first = mcts.chooseMove(OPEN);
+        assertEquals(0, mcts.lastReused());
+        assertEquals(2000, mcts.getStats().nodes());
+
+        // a 2 in the first empty cell: drawn many times under the played move
+        Board after = CONFIG.rules().makeMove(OPEN, first).board();
+        Board next = after.placeTile(after.emptyCellAt(0), 2);
+        mcts.chooseMove(next);
+
+        assertTrue(mcts.lastReused() > 1, "reused " + mcts.lastReused());
+        assertTrue(mcts.treeSize() > mcts.lastReused());
+        assertEquals(4000, mcts.getStats().nodes());
+        assertArrayEquals(new long[]{2}, mcts.getStats().movesByDepth());
+
+        // a position the tree never saw starts afresh
+        mcts.chooseMove(OPEN);
+        assertEquals(0, mcts.lastReused());
+    }
+
+    @Test
+    void fullPool_stopsTheSearchButStillPicksALegalMove() {
+        MctsPlayer mcts = new MctsPlayer(CONFIG, new TableEvaluator(), 2000, 0, 64);
+
+        Move move = mcts.chooseMove(OPEN);
+
+        assertTrue(CONFIG.rules().canMove(OPEN, move));
+        assertTrue(mcts.treeSize() <= 64);
+        assertTrue(mcts.getStats().nodes() < 2000);
+    }
+}
@@ -0,0 +1,96 @@
+package ai;
+
+import ai.eval.TableEvaluator;
+import game.core.Board;
+import game.core.Move;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.runtime.GameSession;
+import game.spawn.ClassicSpawner2048;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelExpectimaxPlayerTest {
+
+    // plays the sequential player's moves, checking the parallel one agrees on every position
+    private static int playBoth(GameConfig config, Player sequential, Player parallel, long seed) {
+        int[] moves = {0};
+        Player both = board -> {
+            Move expected = sequential.chooseMove(board);
+            assertEquals(expected, parallel.chooseMove(board), () -> "diverged after " + moves[0] + " moves on\n" + board);
+            moves[0]++;
+            return expected;
+        };
+        new GameSession(config, seed).runGame(both);
+        return moves[0];
+    }
+
+    @Test
+    void packedBoards_sameMovesAsSequential_withAndWithoutTheSharedCache() {
+        GameConfig config = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+        for (boolean cache : new boolean[]{false, true}) {
+            ExpectimaxPlayer sequential = new ExpectimaxPlayer(config, new TableEvaluator(), 2, cache);
+            ParallelExpectimaxPlayer parallel = new ParallelExpectimaxPlayer(config, new TableEvaluator(), 2, cache, 4, 4);
+
+            int moves = playBoth(config, sequential, parallel, 7);
+            assertTrue(moves > 100);
+
+            // the workers' nodes are counted, so both searched the same tree
+            if (!cache) assertEquals(sequential.getStats().nodes(), parallel.getStats().nodes());
+        }
+    }
+
+    @Test
+    void stackBoards_sameMovesAsSequential() {
+        GameConfig config = new GameConfig(3, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+        ExpectimaxPlayer sequential = new ExpectimaxPlayer(config, new TableEvaluator(), 3, true);
+        ParallelExpectimaxPlayer parallel = new ParallelExpectimaxPlayer(config, new TableEvaluator(), 3, true, 4, 3);
+
+        for (long seed = 0; seed < 5; seed++) {
+            assertTrue(playBoth(config, sequential, parallel, seed) > 0);
+        }
+    }
+
+    @Test
+    void splittingEveryChanceNode_stillFoldsToTheSequentialValues() {
+        // cutoff 1: every chance node down to the leaves is forked, on both board paths
+        for (int size : new int[]{3, 4}) {
+            GameConfig config = new GameConfig(size, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+            ExpectimaxPlayer sequential = new ExpectimaxPlayer(config, new TableEvaluator(), 2, false);
+            ParallelExpectimaxPlayer parallel = new ParallelExpectimaxPlayer(config, new TableEvaluator(), 2, false, 4, 4, 1);
+
+            playBoth(config, sequential, parallel, 11);
+            assertEquals(sequential.getStats().nodes(), parallel.getStats().nodes());
+            assertEquals(sequential.getStats().chanceOutcomes(), parallel.getStats().chanceOutcomes());
+        }
+    }
+
+    @Test
+    void close_shutsDownAnOwnedPool_butNotASharedOne() {
+        GameConfig config = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+        Board board = new Board(4).placeTile(0, 2).placeTile(5, 2).placeTile(10, 4);
+        ForkJoinPool shared = new ForkJoinPool(2);
+        try {
+            ExpectimaxPlayer sequential = new ExpectimaxPlayer(config, new TableEvaluator(), 3, false);
+            Move expected = sequential.chooseMove(board);
+            for (int k = 0; k < 2; k++) {
+                try (ParallelExpectimaxPlayer p = new ParallelExpectimaxPlayer(config, new TableEvaluator(), 3, true, 4,
+                        shared, ParallelExpectimaxPlayer.DEFAULT_SPLIT_PLIES)) {
+                    assertEquals(expected, p.chooseMove(board));
+                }
+                assertFalse(shared.isShutdown());
+            }
+
+            ParallelExpectimaxPlayer owner = new ParallelExpectimaxPlayer(config, new TableEvaluator(), 3, true, 4, 2);
+            owner.chooseMove(board);
+            owner.close();
+            assertThrows(RejectedExecutionException.class, () -> owner.chooseMove(board));
+        } finally {
+            shared.shutdown();
+        }
+    }
+}
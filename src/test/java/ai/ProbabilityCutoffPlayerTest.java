@@ -0,0 +1,61 @@
+package ai;
+
+import ai.eval.TableEvaluator;
+import game.core.Board;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.spawn.ClassicSpawner2048;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProbabilityCutoffPlayerTest {
+
+    private static final GameConfig CONFIG = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+
+    private static final Board OPEN = new Board(4).placeTile(0, 4).placeTile(1, 2).placeTile(6, 2);
+
+    @Test
+    void zeroCutoff_searchesTheFullTree() {
+        ExpectimaxPlayer full = new ExpectimaxPlayer(CONFIG, new TableEvaluator(), 3, false);
+        ProbabilityCutoffPlayer cutoff = new ProbabilityCutoffPlayer(CONFIG, new TableEvaluator(), 3, false, 4, 0.0);
+
+        assertEquals(full.chooseMove(OPEN), cutoff.chooseMove(OPEN));
+        assertEquals(full.getStats().nodes(), cutoff.getStats().nodes());
+        assertEquals(0, cutoff.getStats().pruned());
+    }
+
+    @Test
+    void cutoff_evaluatesUnlikelySpawnsInsteadOfSearchingThem() {
+        ExpectimaxPlayer full = new ExpectimaxPlayer(CONFIG, new TableEvaluator(), 3, false);
+        ProbabilityCutoffPlayer cutoff = new ProbabilityCutoffPlayer(CONFIG, new TableEvaluator(), 3, false, 4, 1e-3);
+
+        full.chooseMove(OPEN);
+        cutoff.chooseMove(OPEN);
+
+        // on 13-14 empty cells, every 4-spawn below the root's own spawn is under 1e-3
+        assertTrue(cutoff.getStats().pruned() > 0);
+        assertTrue(cutoff.getStats().nodes() < full.getStats().nodes() / 2,
+                cutoff.getStats().nodes() + " vs " + full.getStats().nodes());
+    }
+
+    @Test
+    void cache_keepsOnlyFullDepthValues_soSearchOrderDoesNotMatter() {
+        Board[] boards = {
+                OPEN,
+                OPEN.placeTile(15, 2),
+                new Board(4).placeTile(0, 8).placeTile(1, 4).placeTile(4, 2).placeTile(5, 2),
+                new Board(4).placeTile(3, 4).placeTile(7, 4).placeTile(2, 2),
+        };
+        ProbabilityCutoffPlayer cached = new ProbabilityCutoffPlayer(CONFIG, new TableEvaluator(), 3, true, 4, 1e-3);
+
+        // one cached player for every board and both search paths, so later searches meet earlier entries
+        for (Board board : boards) {
+            ProbabilityCutoffPlayer uncached = new ProbabilityCutoffPlayer(CONFIG, new TableEvaluator(), 3, false, 4, 1e-3);
+            double expected = uncached.standaloneValue(board, 6, true);
+            assertEquals(expected, cached.standaloneValue(board, 6, true), Math.abs(expected) * 1e-12);
+            assertEquals(uncached.chooseMove(board), cached.chooseMove(board));
+        }
+        assertTrue(cached.getStats().cacheHits() > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package ai;
+
+import game.core.Board;
+import game.core.Move;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.runtime.GameSession;
+import game.spawn.ClassicSpawner2048;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RolloutPlayerTest {
+
+    private static final GameConfig CONFIG = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+
+    @Test
+    void movesDoNotDependOnTheThreadCount() {
+        RolloutPlayer one = new RolloutPlayer(CONFIG, 20, 30, RolloutPlayer.Policy.RANDOM, 1);
+        RolloutPlayer three = new RolloutPlayer(CONFIG, 20, 30, RolloutPlayer.Policy.RANDOM, 3);
+
+        Player both = board -> {
+            Move expected = one.chooseMove(board);
+            assertEquals(expected, three.chooseMove(board), board::toString);
+            return expected;
+        };
+        new GameSession(CONFIG, 5).runGame(both);
+
+        assertEquals(one.getStats().nodes(), three.getStats().nodes());
+    }
+
+    @Test
+    void horizonCapsEveryRollout() {
+        RolloutPlayer player = new RolloutPlayer(CONFIG, 10, 5, RolloutPlayer.Policy.GREEDY, 2);
+        Board board = new Board(4).placeTile(0, 2).placeTile(5, 2);
+
+        player.chooseMove(board);
+
+        // every legal move gets its rollouts, none longer than the horizon
+        int legal = CONFIG.rules().getLegalMoves(board).size();
+        SearchPlayer.SearchStats stats = player.getStats();
+        assertEquals(10L * legal, stats.evalCalls());
+        assertEquals(10L * legal * 5, stats.nodes());
+        assertArrayEquals(new long[]{1}, stats.movesByDepth());
+    }
+
+    @Test
+    void sharedPool_givesTheSameMoves_andOutlivesThePlayer() {
+        Board board = new Board(4).placeTile(0, 2).placeTile(5, 2).placeTile(10, 4);
+        ForkJoinPool shared = new ForkJoinPool(2);
+        try (RolloutPlayer owner = new RolloutPlayer(CONFIG, 20, 30, RolloutPlayer.Policy.RANDOM, 2);
+             RolloutPlayer guest = new RolloutPlayer(CONFIG, 20, 30, RolloutPlayer.Policy.RANDOM, shared)) {
+            assertEquals(owner.chooseMove(board), guest.chooseMove(board));
+        } finally {
+            assertFalse(shared.isShutdown());
+            shared.shutdown();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ai;
+
+import ai.eval.ClassicEvaluator;
+import ai.eval.NTupleEvaluator;
+import ai.eval.TableEvaluator;
+import game.core.Move;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.runtime.GameSession;
+import game.spawn.ClassicSpawner2048;
+import game.util.Rng;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StarExpectimaxPlayerTest {
+
+    private static final GameConfig CONFIG = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+
+    @Test
+    void choosesTheSameMovesAsExpectimax_withFewerNodes() {
+        for (boolean useCache : new boolean[]{false, true}) {
+            ExpectimaxPlayer full = new ExpectimaxPlayer(CONFIG, new TableEvaluator(), 2, useCache, 4);
+            StarExpectimaxPlayer star = new StarExpectimaxPlayer(CONFIG, new TableEvaluator(), 2, useCache, 4);
+
+            Player both = board -> {
+                Move expected = full.chooseMove(board);
+                assertEquals(expected, star.chooseMove(board), board::toString);
+                return expected;
+            };
+            new GameSession(CONFIG, 11).runGame(both);
+
+            assertTrue(star.getStats().pruned() > 0);
+            assertTrue(star.getStats().nodes() < full.getStats().nodes(),
+                    star.getStats().nodes() + " vs " + full.getStats().nodes());
+        }
+    }
+
+    @Test
+    void nTupleEvaluator_sameMovesAsExpectimax() {
+        int[][] tuples = {{0, 1, 2, 3}, {4, 5, 6, 7}, {0, 1, 4, 5}};
+        Rng rng = new Rng(5);
+        FloatBuffer[] weights = new FloatBuffer[tuples.length];
+        for (int t = 0; t < tuples.length; t++) {
+            float[] table = new float[NTupleEvaluator.tableSize(tuples[t].length)];
+            // mostly positive, so a few outcomes can already decide a chance node
+            for (int i = 0; i < table.length; i++) table[i] = (float) (rng.nextDouble() - 0.1);
+            weights[t] = FloatBuffer.wrap(table);
+        }
+        NTupleEvaluator eval = new NTupleEvaluator(tuples, weights);
+
+        ExpectimaxPlayer full = new ExpectimaxPlayer(CONFIG, eval, 2, false);
+        StarExpectimaxPlayer star = new StarExpectimaxPlayer(CONFIG, eval, 2, false, 4);
+        Player both = board -> {
+            Move expected = full.chooseMove(board);
+            assertEquals(expected, star.chooseMove(board), board::toString);
+            return expected;
+        };
+        new GameSession(CONFIG, 3).runGame(both);
+
+        assertTrue(star.getStats().pruned() > 0);
+        assertEquals(eval.upperBound(), eval.upperBound(0L, 3));
+    }
+
+    @Test
+    void evaluatorBounds_coverTheScoresOfExtremeBoards() {
+        ClassicEvaluator eval = new ClassicEvaluator();
+        long lone = 15L;                  // one 32768 in a corner, rest empty
+        long checker = 0L;                // 2s and 32768s alternating
+        for (int i = 0; i < 16; i++) checker |= (long) ((i / 4 + i) % 2 == 0 ? 1 : 15) << (4 * i);
+
+        assertEquals(eval.upperBound(), eval.evaluate(lone));
+        assertTrue(eval.evaluate(checker) >= eval.lowerBound(), eval.evaluate(checker) + " vs " + eval.lowerBound());
+        assertEquals(eval.upperBound(), new TableEvaluator().upperBound());
+    }
+}
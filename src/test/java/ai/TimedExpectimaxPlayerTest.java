@@ -0,0 +1,50 @@
+package ai;
+
+import ai.eval.TableEvaluator;
+import game.core.Board;
+import game.core.Move;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.runtime.GameSession;
+import game.runtime.SessionResult;
+import game.spawn.ClassicSpawner2048;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedExpectimaxPlayerTest {
+
+    private static final GameConfig CONFIG = new GameConfig(4, new ClassicRules2048(), new ClassicSpawner2048(0.9));
+
+    @Test
+    void ampleBudget_reachesMaxDepth_andPlaysTheFixedDepthMove() {
+        ExpectimaxPlayer fixed = new ExpectimaxPlayer(CONFIG, new TableEvaluator(), 2, true);
+        TimedExpectimaxPlayer timed = new TimedExpectimaxPlayer(CONFIG, new TableEvaluator(), 2, 60_000, true, 4);
+
+        Player both = board -> {
+            Move expected = fixed.chooseMove(board);
+            assertEquals(expected, timed.chooseMove(board));
+            assertEquals(2, timed.lastDepth());
+            return expected;
+        };
+        SessionResult r = new GameSession(CONFIG, 5).runGame(both);
+
+        long[] byDepth = timed.getStats().movesByDepth();
+        assertEquals(r.steps(), byDepth[2]);
+        assertEquals(r.steps(), Arrays.stream(byDepth).sum());
+    }
+
+    @Test
+    void tightBudget_stopsEarly_butAlwaysCompletesDepthOne() {
+        TimedExpectimaxPlayer timed = new TimedExpectimaxPlayer(CONFIG, new TableEvaluator(), 12, 1, true, 4);
+        Board open = new Board(4).placeTile(0, 2).placeTile(5, 2);
+
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(timed.chooseMove(open));
+            assertTrue(timed.lastDepth() >= 1 && timed.lastDepth() < 12, "depth " + timed.lastDepth());
+        }
+        assertEquals(20, Arrays.stream(timed.getStats().movesByDepth()).sum());
+    }
+}
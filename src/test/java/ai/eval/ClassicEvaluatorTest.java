@@ -0,0 +1,70 @@
+package ai.eval;
+
+import game.core.BitBoard;
+import game.util.Rng;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassicEvaluatorTest {
+
+    private final ClassicEvaluator classic = new ClassicEvaluator();
+
+    private static long randomBoard(Rng rng, int maxExponent) {
+        long bits = 0L;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            bits = BitBoard.place(bits, i, rng.nextInt(maxExponent + 1));
+        }
+        return bits;
+    }
+
+    @Test
+    void evaluatePacked_matchesUnpacked() {
+        Rng rng = new Rng(29);
+
+        for (int iter = 0; iter < 2000; iter++) {
+            // small exponent ranges give lots of tied max tiles for the corner term
+            long bits = randomBoard(rng, iter % 2 == 0 ? 3 : 15);
+            assertEquals(classic.evaluate(BitBoard.toBoard(bits)), classic.evaluate(bits), Long.toHexString(bits));
+        }
+    }
+
+    @Test
+    void evaluateBatch_matchesOneAtATime() {
+        Rng rng = new Rng(31);
+
+        for (int count = 0; count <= 40; count++) {
+            long[] boards = new long[count];
+            for (int b = 0; b < count; b++) {
+                // small exponent ranges give lots of tied max tiles for the corner term
+                boards[b] = randomBoard(rng, b % 2 == 0 ? 3 : 14);
+            }
+
+            double[] out = new double[count + 1];
+            out[count] = -1.0;
+            classic.evaluateBatch(boards, count, out);
+
+            for (int b = 0; b < count; b++) {
+                assertEquals(classic.evaluate(boards[b]), out[b], "board " + Long.toHexString(boards[b]));
+            }
+            assertEquals(-1.0, out[count], "wrote past count");
+        }
+    }
+
+    @Test
+    void evaluateSpawns_defaultPathGoesThroughTheBatch() {
+        Rng rng = new Rng(37);
+        double[] out = new double[BitBoard.CELLS];
+
+        for (int iter = 0; iter < 500; iter++) {
+            long bits = randomBoard(rng, iter % 2 == 0 ? 2 : 12);
+            long empties = BitBoard.emptyMask(bits);
+            classic.evaluateSpawns(bits, empties, 1, out);
+
+            int k = 0;
+            for (long m = empties; m != 0; m &= m - 1) {
+                assertEquals(classic.evaluate(BitBoard.place(bits, Long.numberOfTrailingZeros(m), 1)), out[k++]);
+            }
+        }
+    }
+}
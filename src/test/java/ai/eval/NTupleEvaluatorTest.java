@@ -0,0 +1,106 @@
+package ai.eval;
+
+import game.core.BitBoard;
+import game.util.Rng;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NTupleEvaluatorTest {
+
+    @TempDir
+    Path dir;
+
+    private static final int[][] SMALL_TUPLES = {
+            {0, 1, 2},
+            {0, 4},
+            {5, 6, 9},
+    };
+
+    private static float[][] randomWeights(Rng rng, int[][] tuples) {
+        float[][] w = new float[tuples.length][];
+        for (int t = 0; t < tuples.length; t++) {
+            w[t] = new float[NTupleEvaluator.tableSize(tuples[t].length)];
+            for (int i = 0; i < w[t].length; i++) {
+                w[t][i] = (float) (rng.nextDouble() - 0.5);
+            }
+        }
+        return w;
+    }
+
+    private static long randomBoard(Rng rng) {
+        long bits = 0L;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            bits = BitBoard.place(bits, i, rng.nextInt(12));
+        }
+        return bits;
+    }
+
+    @Test
+    void saveThenLoad_mapsTheSameWeights() throws IOException {
+        Rng rng = new Rng(29);
+        float[][] weights = randomWeights(rng, SMALL_TUPLES);
+
+        FloatBuffer[] heap = new FloatBuffer[weights.length];
+        for (int t = 0; t < weights.length; t++) heap[t] = FloatBuffer.wrap(weights[t]);
+        NTupleEvaluator inMemory = new NTupleEvaluator(SMALL_TUPLES, heap);
+
+        NTupleEvaluator.save(dir.resolve("w.ntup"), SMALL_TUPLES, weights);
+        NTupleEvaluator mapped = NTupleEvaluator.load(dir.resolve("w.ntup"));
+
+        assertEquals(SMALL_TUPLES.length, mapped.tupleCount());
+        assertArrayEquals(SMALL_TUPLES[2], mapped.tuple(2));
+        for (int iter = 0; iter < 500; iter++) {
+            long board = randomBoard(rng);
+            assertEquals(inMemory.evaluate(board), mapped.evaluate(board));
+        }
+    }
+
+    @Test
+    void score_isBitIdenticalForAllEightSymmetries() {
+        Rng rng = new Rng(31);
+        float[][] weights = randomWeights(rng, SMALL_TUPLES);
+        // float weights sum exactly in a double unless their magnitudes are about 2^29 apart
+        for (float[] table : weights) {
+            for (int i = 0; i < table.length; i++) table[i] *= (float) Math.pow(2, rng.nextInt(48));
+        }
+        FloatBuffer[] heap = new FloatBuffer[weights.length];
+        for (int t = 0; t < weights.length; t++) heap[t] = FloatBuffer.wrap(weights[t]);
+        NTupleEvaluator eval = new NTupleEvaluator(SMALL_TUPLES, heap);
+
+        assertTrue(eval.isSymmetric());
+        for (int iter = 0; iter < 200; iter++) {
+            long board = randomBoard(rng);
+            double expected = eval.evaluate(board);
+            long h = BitBoard.flipHorizontal(board);
+            long v = BitBoard.flipVertical(board);
+
+            assertEquals(expected, eval.evaluate(h));
+            assertEquals(expected, eval.evaluate(v));
+            assertEquals(expected, eval.evaluate(BitBoard.transpose(board)));
+            assertEquals(expected, eval.evaluate(BitBoard.transpose(BitBoard.flipVertical(h))));
+        }
+    }
+
+    @Test
+    void load_rejectsForeignAndTruncatedFiles() throws IOException {
+        Path foreign = dir.resolve("foreign.bin");
+        Files.write(foreign, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertThrows(IOException.class, () -> NTupleEvaluator.load(foreign));
+
+        Path file = dir.resolve("w.ntup");
+        NTupleEvaluator.save(file, SMALL_TUPLES, randomWeights(new Rng(1), SMALL_TUPLES));
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = dir.resolve("truncated.ntup");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> NTupleEvaluator.load(truncated));
+    }
+
+}
@@ -0,0 +1,78 @@
+package ai.eval;
+
+import game.core.BitBoard;
+import game.core.Board;
+import game.core.SearchBoard;
+import game.util.Rng;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableEvaluatorTest {
+
+    private final ClassicEvaluator classic = new ClassicEvaluator();
+    private final TableEvaluator table = new TableEvaluator();
+
+    private static Board randomBoard(Rng rng, int n, int maxExponent) {
+        int[] flat = new int[n * n];
+        for (int i = 0; i < flat.length; i++) {
+            int e = rng.nextInt(maxExponent + 1);
+            flat[i] = e == 0 ? 0 : 1 << e;
+        }
+        return Board.wrapTrustedCells(n, flat);
+    }
+
+    @Test
+    void scores_matchClassicEvaluator_onRandomPackedBoards() {
+        Rng rng = new Rng(17);
+
+        for (int iter = 0; iter < 5000; iter++) {
+            // small exponent ranges give lots of tied max tiles for the corner term
+            Board board = randomBoard(rng, 4, iter % 2 == 0 ? 3 : 14);
+            long bits = BitBoard.pack(board);
+
+            double expected = classic.evaluate(board);
+            assertEquals(expected, table.evaluate(bits), "packed " + Long.toHexString(bits));
+            assertEquals(expected, table.evaluate(board));
+        }
+    }
+
+    @Test
+    void searchBoardsAndOtherSizes_matchClassicEvaluator() {
+        Rng rng = new Rng(19);
+
+        for (int n = 3; n <= 5; n++) {
+            SearchBoard stack = new SearchBoard(n, 1);
+            for (int iter = 0; iter < 200; iter++) {
+                Board board = randomBoard(rng, n, 16);
+                stack.reset(board);
+
+                assertEquals(classic.evaluate(board), table.evaluate(board), n + "x" + n);
+                assertEquals(classic.evaluate(board), table.evaluate(stack), n + "x" + n + " stack");
+            }
+        }
+
+        assertEquals(classic.evaluate(new Board(4)), table.evaluate(0L));
+    }
+
+    @Test
+    void evaluateSpawns_matchesEvaluatingEachChild() {
+        Rng rng = new Rng(23);
+        double[] out = new double[BitBoard.CELLS];
+
+        for (int iter = 0; iter < 2000; iter++) {
+            long bits = BitBoard.pack(randomBoard(rng, 4, iter % 2 == 0 ? 2 : 12));
+            long empties = BitBoard.emptyMask(bits);
+
+            for (int exponent = 1; exponent <= 2; exponent++) {
+                table.evaluateSpawns(bits, empties, exponent, out);
+
+                int k = 0;
+                for (long m = empties; m != 0; m &= m - 1) {
+                    long child = BitBoard.place(bits, Long.numberOfTrailingZeros(m), exponent);
+                    assertEquals(classic.evaluate(BitBoard.toBoard(child)), out[k++], "child " + Long.toHexString(child));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ai.train;
+
+import ai.eval.NTupleEvaluator;
+import game.core.BitBoard;
+import game.rules.ClassicRules2048;
+import game.runtime.GameConfig;
+import game.runtime.GameSession;
+import game.runtime.SessionResult;
+import game.spawn.ClassicSpawner2048;
+import game.util.Rng;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TDLearnerTest {
+
+    private static final int[][] SMALL_TUPLES = {
+            {0, 1, 2, 3},
+            {4, 5, 6, 7},
+            {0, 1, 4, 5},
+    };
+
+    private static long randomBoard(Rng rng) {
+        long bits = 0L;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            bits = BitBoard.place(bits, i, rng.nextInt(12));
+        }
+        return bits;
+    }
+
+    @Test
+    void networkValue_matchesEvaluatorOverTheSameWeights() {
+        NTupleNetwork net = new NTupleNetwork(SMALL_TUPLES);
+        Rng rng = new Rng(13);
+        for (int i = 0; i < 200; i++) {
+            net.update(randomBoard(rng), (float) (rng.nextDouble() - 0.5));
+        }
+
+        NTupleEvaluator eval = net.evaluator();
+        assertTrue(eval.isSymmetric());
+        for (int i = 0; i < 200; i++) {
+            long board = randomBoard(rng);
+            assertEquals(eval.evaluate(board), net.value(board));
+            assertEquals(net.value(board), net.value(BitBoard.canonical(board)));
+        }
+    }
+
+    @Test
+    void selfPlay_updatesOncePerMove_andLearnsPositiveValues() {
+        ClassicRules2048 rules = new ClassicRules2048();
+        GameConfig config = new GameConfig(4, rules, new ClassicSpawner2048(0.9));
+        NTupleNetwork net = new NTupleNetwork(SMALL_TUPLES);
+        TDLearner learner = new TDLearner(net, rules, 0.1);
+
+        long updates = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            SessionResult r = new GameSession(config, seed).runGame(learner);
+            learner.endGame();
+
+            // one update per transition plus the terminal one
+            updates += r.steps();
+            assertEquals(updates, learner.updates());
+        }
+
+        // merges pay off, so an opening position should have learned a positive value
+        long start = BitBoard.place(BitBoard.place(0L, 0, 1), 5, 1);
+        assertTrue(net.value(start) > 0.0);
+    }
+}
@@ -0,0 +1,70 @@
+package ai.util;
+
+import game.util.Rng;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTranspositionTableTest {
+
+    @Test
+    void get_onlyHitsTheExactKeyPliesAndNodeType() {
+        ConcurrentTranspositionTable tt = new ConcurrentTranspositionTable(1024);
+        tt.put(0x1234L, 3, 1, 42.5);
+
+        assertEquals(42.5, tt.get(0x1234L, 3, 1));
+        assertTrue(Double.isNaN(tt.get(0x1234L, 2, 1)));
+        assertTrue(Double.isNaN(tt.get(0x1234L, 3, 0)));
+        assertTrue(Double.isNaN(tt.get(0x1235L, 3, 1)));
+        assertTrue(Double.isNaN(tt.get(0L, 0, 0)), "empty slots never match");
+
+        tt.put(0x1234L, 3, 1, Double.NEGATIVE_INFINITY);
+        assertEquals(Double.NEGATIVE_INFINITY, tt.get(0x1234L, 3, 1));
+        assertEquals(2, tt.hits());
+        assertEquals(4, tt.misses());
+        assertEquals(0, tt.tornReads());
+    }
+
+    @Test
+    void concurrentReadersAndWriters_onlyEverSeeStoredValues() throws Exception {
+        // tiny table and key range, so threads keep overwriting each other's slots
+        ConcurrentTranspositionTable tt = new ConcurrentTranspositionTable(64);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            futures.add(pool.submit(() -> {
+                Rng rng = new Rng(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = rng.nextInt(500) * 0x9E3779B97F4A7C15L;
+                    int plies = rng.nextInt(8);
+                    if (rng.nextInt(2) == 0) {
+                        tt.put(key, plies, 1, expected(key, plies));
+                    } else {
+                        double v = tt.get(key, plies, 1);
+                        if (!Double.isNaN(v) && v != expected(key, plies)) {
+                            throw new AssertionError("wrong value for " + key + "/" + plies + ": " + v);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        assertTrue(tt.hits() > 0);
+        assertTrue(tt.replacements() > 0);
+    }
+
+    private static double expected(long key, int plies) {
+        return (key >>> 40) + plies * 0.5;
+    }
+}
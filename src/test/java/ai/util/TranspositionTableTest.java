@@ -0,0 +1,113 @@
+package ai.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void get_onlyHitsTheExactKeyPliesAndNodeType() {
+        TranspositionTable tt = new TranspositionTable(1024);
+        tt.put(0x1234L, 3, 1, 42.5);
+
+        assertEquals(42.5, tt.get(0x1234L, 3, 1));
+        assertTrue(Double.isNaN(tt.get(0x1234L, 2, 1)));
+        assertTrue(Double.isNaN(tt.get(0x1234L, 3, 0)));
+        assertTrue(Double.isNaN(tt.get(0x1235L, 3, 1)));
+
+        tt.put(0x1234L, 3, 1, -7.0);
+        assertEquals(-7.0, tt.get(0x1234L, 3, 1));
+        assertEquals(2, tt.hits());
+        assertEquals(3, tt.misses());
+        assertEquals(0, tt.replacements());
+
+        tt.clear();
+        assertTrue(Double.isNaN(tt.get(0x1234L, 3, 1)));
+    }
+
+    @Test
+    void fullBucket_evictsOlderSearchesFirst_thenFewestPlies() {
+        // a single bucket, so every entry competes for the same slots
+        TranspositionTable tt = new TranspositionTable(TranspositionTable.BUCKET);
+
+        tt.put(1L, 2, 0, 1.0); // old generation, many plies
+        tt.newSearch();
+        tt.put(2L, 1, 0, 2.0);
+        tt.put(3L, 5, 0, 3.0);
+        tt.put(4L, 6, 0, 4.0);
+        assertEquals(0, tt.replacements());
+
+        tt.put(5L, 7, 0, 5.0);
+        assertTrue(Double.isNaN(tt.get(1L, 2, 0)), "old generation goes first");
+        assertEquals(1, tt.replacements());
+
+        tt.put(6L, 7, 0, 6.0);
+        assertTrue(Double.isNaN(tt.get(2L, 1, 0)), "then the shallowest entry");
+        assertEquals(3.0, tt.get(3L, 5, 0));
+        assertEquals(4.0, tt.get(4L, 6, 0));
+        assertEquals(5.0, tt.get(5L, 7, 0));
+        assertEquals(6.0, tt.get(6L, 7, 0));
+        assertEquals(2, tt.replacements());
+        assertTrue(tt.collisions() >= 2);
+    }
+
+    @Test
+    void fullBucket_keepsThePreviousSearchOverStaleOnes() {
+        TranspositionTable tt = new TranspositionTable(TranspositionTable.BUCKET);
+
+        tt.put(1L, 9, 0, 1.0); // stale by the time the bucket fills, however deep
+        tt.newSearch();
+        tt.put(2L, 1, 0, 2.0); // previous search, shallow
+        tt.newSearch();
+        tt.put(3L, 5, 0, 3.0);
+        tt.put(4L, 6, 0, 4.0);
+
+        tt.put(5L, 7, 0, 5.0);
+        assertTrue(Double.isNaN(tt.get(1L, 9, 0)), "stale goes first");
+        assertEquals(2.0, tt.get(2L, 1, 0));
+        assertEquals(1, tt.carriedHits());
+    }
+
+    @Test
+    void reuseDeeper_answersShallowerLookupsAndKeepsTheDeepestEntry() {
+        TranspositionTable tt = new TranspositionTable(1024, true);
+        tt.put(0x1234L, 5, 1, 42.5);
+
+        assertEquals(42.5, tt.get(0x1234L, 3, 1));
+        assertEquals(42.5, tt.get(0x1234L, 5, 1));
+        assertTrue(Double.isNaN(tt.get(0x1234L, 7, 1)), "a shallower entry never answers a deeper lookup");
+        assertTrue(Double.isNaN(tt.get(0x1234L, 3, 0)));
+
+        tt.put(0x1234L, 3, 1, -7.0);
+        assertEquals(42.5, tt.get(0x1234L, 3, 1), "a shallower result does not overwrite a deeper one");
+
+        tt.put(0x1234L, 7, 1, 9.0);
+        assertEquals(9.0, tt.get(0x1234L, 5, 1));
+        assertEquals(0, tt.replacements());
+    }
+
+    @Test
+    void carriedHits_countHitsOnEntriesFromEarlierSearches() {
+        TranspositionTable tt = new TranspositionTable(1024, true);
+        tt.put(1L, 4, 0, 1.0);
+        tt.get(1L, 4, 0);
+        assertEquals(0, tt.carriedHits());
+
+        tt.newSearch();
+        tt.get(1L, 2, 0);
+        tt.get(1L, 2, 0); // refreshed by the first hit
+        assertEquals(3, tt.hits());
+        assertEquals(1, tt.carriedHits());
+
+        tt.resetStats();
+        assertEquals(0, tt.carriedHits());
+    }
+
+    @Test
+    void ofMegabytes_sizesTheTableByEntryBytes() {
+        TranspositionTable tt = TranspositionTable.ofMegabytes(2);
+        long expected = (2L << 20) / TranspositionTable.ENTRY_BYTES;
+        assertTrue(tt.capacity() <= expected && tt.capacity() > expected - TranspositionTable.BUCKET);
+    }
+}
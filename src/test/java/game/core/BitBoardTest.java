@@ -0,0 +1,188 @@
+package game.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitBoardTest {
+
+    private static Board b(int... flat) {
+        assertEquals(16, flat.length, "flat length must be 16");
+        return Board.wrapTrustedCells(4, flat);
+    }
+
+    @Test
+    void packThenUnpack_roundTripsEveryCell() {
+        Board start = b(
+                2,    4,    8,     16,
+                32,   64,   128,   256,
+                512,  1024, 2048,  4096,
+                8192, 0,    16384, 32768
+        );
+
+        long bits = BitBoard.pack(start);
+
+        assertEquals(start, BitBoard.toBoard(bits));
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                assertEquals(start.get(r, c), BitBoard.get(bits, r, c), "cell (" + r + "," + c + ")");
+            }
+        }
+    }
+
+    @Test
+    void layout_rowMajorWithColumnZeroInLowestNibble() {
+        Board start = b(
+                2, 4, 0, 0,
+                0, 0, 0, 0,
+                0, 0, 0, 0,
+                0, 0, 0, 8
+        );
+
+        long bits = BitBoard.pack(start);
+
+        assertEquals(0x21, BitBoard.row(bits, 0));
+        assertEquals(0x3000, BitBoard.row(bits, 3));
+        assertEquals(1, BitBoard.exponent(bits, 0));
+        assertEquals(3, BitBoard.exponent(bits, 15));
+    }
+
+    @Test
+    void transpose_swapsRowsAndColumns() {
+        long bits = 0L;
+        for (int i = 0; i < 16; i++) {
+            bits = BitBoard.place(bits, i, i);
+        }
+
+        long t = BitBoard.transpose(bits);
+
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                assertEquals(BitBoard.exponent(bits, r * 4 + c), BitBoard.exponent(t, c * 4 + r));
+            }
+        }
+        assertEquals(bits, BitBoard.transpose(t));
+    }
+
+    @Test
+    void reverseRow_flipsNibbleOrder() {
+        assertEquals(0x4321, BitBoard.reverseRow(0x1234));
+        assertEquals(0x0000, BitBoard.reverseRow(0x0000));
+    }
+
+    @Test
+    void emptyCells_matchBoardOrder() {
+        Board start = b(
+                2, 0, 2, 0,
+                0, 4, 0, 4,
+                8, 8, 8, 8,
+                0, 0, 0, 2
+        );
+
+        long bits = BitBoard.pack(start);
+
+        assertArrayEquals(start.getEmptyCells(), BitBoard.emptyCells(bits));
+        assertEquals(start.getEmptyCells().length, BitBoard.countEmpty(bits));
+    }
+
+    @Test
+    void place_overwritesOnlyTargetCell() {
+        long bits = BitBoard.pack(b(
+                2, 2, 2, 2,
+                2, 0, 2, 2,
+                2, 2, 2, 2,
+                2, 2, 2, 2
+        ));
+
+        long placed = BitBoard.place(bits, 5, 2);
+
+        assertEquals(4, BitBoard.get(placed, 1, 1));
+        assertEquals(bits, BitBoard.place(placed, 5, 0));
+        assertEquals(4, BitBoard.maxTile(placed));
+    }
+
+    @Test
+    void supports_onlyFourByFourWithMergeHeadroom() {
+        assertTrue(BitBoard.supports(new Board(4)));
+        assertFalse(BitBoard.supports(new Board(5)));
+
+        Board big = new Board(4).placeTile(0, 32768);
+        assertFalse(BitBoard.supports(big));
+        assertEquals(32768, BitBoard.maxTile(BitBoard.pack(big)));
+
+        // four 16384s can become two 32768s
+        Board fours = new Board(4).placeTile(0, 16384).placeTile(1, 16384).placeTile(2, 16384).placeTile(3, 16384);
+        assertFalse(BitBoard.supports(fours, 0));
+
+        // 3 * 16384 + 8192 + ... + 16 = 65520: three spawns cannot reach 65536, four can
+        Board near = new Board(4).placeTile(0, 16384).placeTile(1, 16384);
+        for (int i = 2, v = 16384; v >= 16; i++, v /= 2) near = near.placeTile(i, v);
+        assertTrue(BitBoard.supports(near, 3));
+        assertFalse(BitBoard.supports(near, 4));
+    }
+
+    @Test
+    void canonical_isSharedByAllEightSymmetries() {
+        long bits = 0L;
+        for (int i = 0; i < 16; i++) {
+            bits = BitBoard.place(bits, i, i);
+        }
+
+        long h = BitBoard.flipHorizontal(bits);
+        long v = BitBoard.flipVertical(bits);
+        long hv = BitBoard.flipVertical(h);
+        long[] symmetries = {
+                bits, h, v, hv,
+                BitBoard.transpose(bits), BitBoard.transpose(h), BitBoard.transpose(v), BitBoard.transpose(hv)
+        };
+
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                assertEquals(r * 4 + (3 - c), BitBoard.exponent(h, r * 4 + c), "flipH (" + r + "," + c + ")");
+                assertEquals((3 - r) * 4 + c, BitBoard.exponent(v, r * 4 + c), "flipV (" + r + "," + c + ")");
+            }
+        }
+
+        long canonical = BitBoard.canonical(bits);
+        for (long s : symmetries) {
+            assertEquals(canonical, BitBoard.canonical(s));
+        }
+        assertEquals(8, java.util.Arrays.stream(symmetries).distinct().count());
+        assertNotEquals(canonical, BitBoard.canonical(BitBoard.place(bits, 1, 0)));
+    }
+
+    @Test
+    void canonicalHash_matchesAcrossSymmetricBoards() {
+        Board start = b(
+                2, 4, 0, 0,
+                0, 8, 0, 0,
+                0, 0, 0, 0,
+                0, 0, 0, 16
+        );
+        long bits = BitBoard.pack(start);
+
+        long expected = start.canonicalHash();
+        assertEquals(expected, BitBoard.toBoard(BitBoard.flipHorizontal(bits)).canonicalHash());
+        assertEquals(expected, BitBoard.toBoard(BitBoard.transpose(BitBoard.flipVertical(bits))).canonicalHash());
+        assertNotEquals(expected, start.placeTile(2, 2).canonicalHash());
+    }
+
+    @Test
+    void emptyMask_matchesEmptyCells() {
+        Board start = b(
+                2, 0, 0,     16,
+                0, 0, 32768, 0,
+                4, 0, 0,     0,
+                0, 8, 0,     2
+        );
+        long bits = BitBoard.pack(start);
+
+        long mask = BitBoard.emptyMask(bits);
+
+        assertEquals(start.emptyMask(), mask);
+        assertEquals(0b0101_1110_1011_0110L, mask);
+        assertEquals(10, BitBoard.countEmpty(bits));
+        assertEquals(0xFFFFL, BitBoard.emptyMask(0L));
+        assertEquals(0L, BitBoard.emptyMask(-1L));
+    }
+}
@@ -0,0 +1,73 @@
+package game.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardTest {
+
+    @Test
+    void values_roundTripThroughExponentStorage() {
+        Board board = Board.wrapTrustedCells(2, new int[] {0, 2, 1024, 1 << 20});
+
+        assertEquals(0, board.get(0, 0));
+        assertEquals(2, board.get(0, 1));
+        assertEquals(1024, board.get(1, 0));
+        assertEquals(1 << 20, board.get(1, 1));
+
+        assertEquals(0, board.getExponent(0, 0));
+        assertEquals(10, board.exponentAt(2));
+        assertEquals(20, board.getMaxExponent());
+        assertEquals(1 << 20, board.getMaxTile());
+        assertArrayEquals(new int[][] {{0, 2}, {1024, 1 << 20}}, board.getGrid());
+    }
+
+    @Test
+    void placeTile_andPlaceExponent_agree() {
+        Board empty = new Board(3);
+
+        assertEquals(empty.placeTile(4, 4), empty.placeExponent(4, 2));
+        assertEquals(4, empty.placeTile(4, 4).get(1, 1));
+        assertEquals(0, empty.get(1, 1), "placeTile must not mutate the original");
+    }
+
+    @Test
+    void nonPowerOfTwoTiles_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Board(2).placeTile(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> Board.wrapTrustedCells(1, new int[] {1}));
+    }
+
+    @Test
+    void emptyCellAt_walksEmptiesInIndexOrder() {
+        Board board = Board.wrapTrustedCells(2, new int[] {0, 2, 0, 0});
+
+        assertEquals(3, board.countEmptyCells());
+        assertArrayEquals(new int[] {0, 2, 3}, board.getEmptyCells());
+        for (int k = 0; k < 3; k++) {
+            assertEquals(board.getEmptyCells()[k], board.emptyCellAt(k));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> board.emptyCellAt(3));
+    }
+
+    @Test
+    void zobristHash_updatedByPlaceTile_matchesFreshHash() {
+        Board board = new Board(4)
+                .placeTile(0, 2)
+                .placeTile(5, 4)
+                .placeTile(5, 8)
+                .placeTile(15, 2048);
+
+        Board fresh = Board.wrapTrustedCells(4, new int[] {
+                2, 0, 0, 0,
+                0, 8, 0, 0,
+                0, 0, 0, 0,
+                0, 0, 0, 2048
+        });
+
+        assertEquals(fresh, board);
+        assertEquals(fresh.zobristHash(), board.zobristHash());
+        assertEquals(Zobrist.hash(BitBoard.pack(board)), board.zobristHash());
+        assertEquals(0L, new Board(4).zobristHash());
+        assertNotEquals(board.zobristHash(), board.placeTile(1, 2).zobristHash());
+    }
+}
@@ -0,0 +1,45 @@
+package game.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchBoardTest {
+
+    @Test
+    void pushTileThenPop_restoresLevelAndHash() {
+        Board start = Board.wrapTrustedCells(3, new int[] {
+                2, 0, 4,
+                0, 8, 0,
+                0, 0, 2
+        });
+        SearchBoard stack = new SearchBoard(3, 3);
+        stack.reset(start);
+
+        stack.pushTile(1, 1);
+        stack.pushTile(3, 2);
+
+        Board expected = start.placeTile(1, 2).placeTile(3, 4);
+        assertEquals(2, stack.depth());
+        assertEquals(expected, stack.toBoard());
+        assertEquals(expected.zobristHash(), stack.zobristHash());
+        assertEquals(3, stack.countEmptyCells());
+        assertEquals(expected.emptyMask(), stack.emptyMask());
+
+        stack.pop();
+        stack.pop();
+        assertEquals(start, stack.toBoard());
+        assertEquals(start.zobristHash(), stack.zobristHash());
+        assertThrows(IllegalStateException.class, stack::pop);
+    }
+
+    @Test
+    void push_pastCapacity_throws() {
+        SearchBoard stack = new SearchBoard(2, 2);
+        stack.reset(new Board(2));
+
+        stack.pushTile(0, 1);
+        assertThrows(IllegalStateException.class, () -> stack.pushTile(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> stack.reset(new Board(3)));
+    }
+}
@@ -1,8 +1,11 @@
 package game.rules;
 
+import game.core.BitBoard;
 import game.core.Board;
 import game.core.Move;
 import game.core.MoveResult;
+import game.core.SearchBoard;
+import game.util.Rng;
 import org.junit.jupiter.api.Test;
 
 import java.util.EnumSet;
@@ -34,6 +37,14 @@ class ClassicRules2048Test {
         }
     }
 
+    // Zobrist hash recomputed from scratch, to check the incremental one
+    private static long freshHash(Board board) {
+        int n = board.getDimension();
+        int[] flat = new int[n * n];
+        for (int r = 0; r < n; r++) for (int c = 0; c < n; c++) flat[r * n + c] = board.get(r, c);
+        return Board.wrapTrustedCells(n, flat).zobristHash();
+    }
+
     private static int sum(Board b) {
         int n = b.getDimension();
         int s = 0;
@@ -252,6 +263,7 @@ class ClassicRules2048Test {
 
         EnumSet<Move> legal = rules.getLegalMoves(start);
         assertEquals(EnumSet.of(Move.LEFT, Move.RIGHT), legal);
+        assertEquals(Move.LEFT.bit() | Move.RIGHT.bit(), rules.legalMoveMask(start));
 
         assertFalse(rules.isGameOver(start));
     }
@@ -266,6 +278,7 @@ class ClassicRules2048Test {
         );
 
         assertTrue(rules.getLegalMoves(stuck).isEmpty());
+        assertEquals(0, rules.legalMoveMask(stuck));
         assertTrue(rules.isGameOver(stuck));
         for (Move m : Move.values()) assertFalse(rules.canMove(stuck, m));
     }
@@ -371,4 +384,140 @@ class ClassicRules2048Test {
         // Sum invariant is a clean “no weird tile creation” check.
         assertEquals(sum(start), sum(res.board()));
     }
-}
\ No newline at end of file
+
+    // =========================================================
+    // Table-driven paths vs. the per-cell reference path
+    // =========================================================
+
+    @Test
+    void tableMoves_matchPerCellPath_onRandomBoards() {
+        // 4x4 goes through BitBoard tables, 5x5/6x6 through RowTable.
+        Rng rng = new Rng(7);
+
+        for (int n = 4; n <= 6; n++) {
+            for (int iter = 0; iter < 1000; iter++) {
+                int[] flat = new int[n * n];
+                for (int i = 0; i < flat.length; i++) {
+                    int e = rng.nextInt(8);
+                    flat[i] = e == 0 ? 0 : 1 << e;
+                }
+                Board start = b(n, flat);
+
+                for (Move m : Move.values()) {
+                    MoveResult expected = rules.makeMoveCells(start, m);
+                    MoveResult actual = rules.makeMove(start, m);
+
+                    assertEquals(expected.board(), actual.board(), n + "x" + n + " board for " + m);
+                    assertEquals(freshHash(expected.board()), expected.board().zobristHash(), "per-cell hash for " + m);
+                    assertEquals(freshHash(actual.board()), actual.board().zobristHash(), "table hash for " + m);
+                    assertEquals(expected.scoreGained(), actual.scoreGained(), n + "x" + n + " score for " + m);
+                    assertEquals(rules.canMoveCells(start, m), rules.canMove(start, m), n + "x" + n + " canMove for " + m);
+                }
+            }
+        }
+    }
+
+    @Test
+    void largeTiles_fallBackToPerCellPath() {
+        // 32768 + 32768 does not fit a 4-bit cell; the result must still be exact.
+        Board start = b(5,
+                32768, 32768, 0, 0, 0,
+                0,     0,     0, 0, 0,
+                0,     0,     0, 0, 0,
+                0,     0,     0, 0, 0,
+                0,     0,     0, 0, 2
+        );
+
+        MoveResult res = rules.makeMove(start, Move.LEFT);
+
+        assertEquals(65536, res.board().get(0, 0));
+        assertEquals(65536, res.scoreGained());
+    }
+
+    @Test
+    void packedMoves_leaveOutMergesOfTwoMaxTiles() {
+        // row 0: 32768 32768 2 0, column 3 can still slide down
+        long bits = BitBoard.pack(b(4,
+                32768, 32768, 2, 0,
+                0,     0,     0, 0,
+                0,     0,     0, 0,
+                0,     0,     0, 4
+        ));
+
+        int mask = Move.UP.bit() | Move.DOWN.bit();
+        assertEquals(mask, rules.legalMoveMask(bits));
+        assertEquals(mask, rules.afterstates(bits, new long[4]));
+        assertFalse(rules.canMove(bits, Move.LEFT));
+        assertEquals(bits, rules.makeMove(bits, Move.LEFT));
+        assertEquals(bits, rules.makeMove(bits, Move.RIGHT));
+
+        // the Board path is exact: it does not pack a board holding 32768
+        MoveResult res = rules.makeMove(BitBoard.toBoard(bits), Move.LEFT);
+        assertEquals(65536, res.board().get(0, 0));
+        assertEquals(65536, res.scoreGained());
+    }
+
+    @Test
+    void legalMoveMask_andAfterstates_agreeWithCanMoveAndMakeMove() {
+        Rng rng = new Rng(11);
+
+        for (int n = 4; n <= 6; n++) {
+            for (int iter = 0; iter < 500; iter++) {
+                int[] flat = new int[n * n];
+                for (int i = 0; i < flat.length; i++) {
+                    int e = rng.nextInt(6);
+                    flat[i] = e == 0 ? 0 : 1 << e;
+                }
+                Board start = b(n, flat);
+
+                Board[] after = new Board[4];
+                int mask = rules.afterstates(start, after);
+
+                assertEquals(mask, rules.legalMoveMask(start));
+                for (Move m : Move.values()) {
+                    boolean legal = (mask & m.bit()) != 0;
+                    assertEquals(rules.canMove(start, m), legal, "mask bit for " + m);
+                    if (legal) {
+                        assertEquals(rules.makeMove(start, m).board(), after[m.ordinal()], "afterstate for " + m);
+                        assertEquals(freshHash(after[m.ordinal()]), after[m.ordinal()].zobristHash(), "afterstate hash for " + m);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void pushMove_matchesMakeMove_andPopRestoresStack() {
+        Rng rng = new Rng(13);
+
+        for (int n = 3; n <= 7; n++) {
+            SearchBoard stack = new SearchBoard(n, 2);
+            for (int iter = 0; iter < 300; iter++) {
+                int[] flat = new int[n * n];
+                for (int i = 0; i < flat.length; i++) {
+                    // some boards get tiles too large for the row tables
+                    int e = rng.nextInt(iter % 10 == 0 ? 17 : 6);
+                    flat[i] = e == 0 ? 0 : 1 << e;
+                }
+                Board start = b(n, flat);
+                stack.reset(start);
+
+                for (Move m : Move.values()) {
+                    boolean pushed = rules.pushMove(stack, m);
+                    assertEquals(rules.canMove(start, m), pushed, n + "x" + n + " legality of " + m);
+                    if (!pushed) {
+                        assertEquals(0, stack.depth());
+                        continue;
+                    }
+
+                    Board expected = rules.makeMove(start, m).board();
+                    assertEquals(expected, stack.toBoard(), n + "x" + n + " board for " + m);
+                    assertEquals(expected.zobristHash(), stack.zobristHash(), "hash for " + m);
+
+                    stack.pop();
+                    assertEquals(start, stack.toBoard());
+                }
+            }
+        }
+    }
+}